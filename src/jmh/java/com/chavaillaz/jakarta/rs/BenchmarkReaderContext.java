@@ -0,0 +1,122 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+
+/**
+ * Reader interceptor context reading the same payload for each request, without any mocking overhead.
+ */
+public class BenchmarkReaderContext implements ReaderInterceptorContext {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    private final byte[] payload;
+    private final MediaType mediaType;
+    private InputStream inputStream;
+
+    public BenchmarkReaderContext(byte[] payload, MediaType mediaType) {
+        this.payload = payload;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Resets the input stream in order to read the payload again.
+     */
+    public void reset() {
+        inputStream = new ByteArrayInputStream(payload);
+        properties.clear();
+    }
+
+    @Override
+    public Object proceed() throws IOException {
+        return inputStream.transferTo(OutputStream.nullOutputStream());
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public void setInputStream(InputStream is) {
+        this.inputStream = is;
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    @Override
+    public void setProperty(String name, Object object) {
+        properties.put(name, object);
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        properties.remove(name);
+    }
+
+    @Override
+    public Annotation[] getAnnotations() {
+        return new Annotation[0];
+    }
+
+    @Override
+    public void setAnnotations(Annotation[] annotations) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public Class<?> getType() {
+        return String.class;
+    }
+
+    @Override
+    public void setType(Class<?> type) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public Type getGenericType() {
+        return String.class;
+    }
+
+    @Override
+    public void setGenericType(Type genericType) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public void setMediaType(MediaType mediaType) {
+        // Not used by benchmarks
+    }
+
+}
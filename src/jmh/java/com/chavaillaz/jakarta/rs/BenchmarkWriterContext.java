@@ -0,0 +1,130 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Writer interceptor context writing the same payload for each response, without any mocking overhead.
+ */
+public class BenchmarkWriterContext implements WriterInterceptorContext {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    private final byte[] payload;
+    private final MediaType mediaType;
+    private OutputStream outputStream;
+
+    public BenchmarkWriterContext(byte[] payload, MediaType mediaType) {
+        this.payload = payload;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Resets the output stream in order to write the payload again.
+     */
+    public void reset() {
+        outputStream = OutputStream.nullOutputStream();
+        properties.clear();
+    }
+
+    @Override
+    public void proceed() throws IOException {
+        outputStream.write(payload);
+    }
+
+    @Override
+    public Object getEntity() {
+        return payload;
+    }
+
+    @Override
+    public void setEntity(Object entity) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public void setOutputStream(OutputStream os) {
+        this.outputStream = os;
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public Collection<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    @Override
+    public void setProperty(String name, Object object) {
+        properties.put(name, object);
+    }
+
+    @Override
+    public void removeProperty(String name) {
+        properties.remove(name);
+    }
+
+    @Override
+    public Annotation[] getAnnotations() {
+        return new Annotation[0];
+    }
+
+    @Override
+    public void setAnnotations(Annotation[] annotations) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public Class<?> getType() {
+        return byte[].class;
+    }
+
+    @Override
+    public void setType(Class<?> type) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public Type getGenericType() {
+        return byte[].class;
+    }
+
+    @Override
+    public void setGenericType(Type genericType) {
+        // Not used by benchmarks
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public void setMediaType(MediaType mediaType) {
+        // Not used by benchmarks
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.HEADER;
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.QUERY;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
+import jakarta.ws.rs.container.ResourceInfo;
+import org.jboss.resteasy.core.Headers;
+import org.jboss.resteasy.core.interception.jaxrs.ContainerResponseContextImpl;
+import org.jboss.resteasy.core.interception.jaxrs.PreMatchContainerRequestContext;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.specimpl.BuiltResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the complete processing of a request and its response by {@link LoggedFilter}.
+ * Run it with {@code mvn -Pjmh test-compile exec:exec} and compare the throughput
+ * and the allocation rate ({@code gc.alloc.rate.norm}) between versions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class LoggedFilterBenchmark {
+
+    @Param({"noBodyLogging", "bodyAsMdc", "bodyAsMdcWithFilter", "bodyAsMdcWithMasking", "autoMappings"})
+    public String resourceMethod;
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    @Param({"MDC", "STRUCTURED"})
+    public LoggedContext.Storage contextStorage;
+
+    private LoggedFilter filter;
+    private PreMatchContainerRequestContext requestContext;
+    private ContainerResponseContextImpl responseContext;
+    private BenchmarkReaderContext readerContext;
+    private BenchmarkWriterContext writerContext;
+
+    /**
+     * Generates a JSON payload of approximately the given size containing sensitive data.
+     *
+     * @param size The size of the payload in bytes
+     * @return The payload generated
+     */
+    static byte[] generatePayload(int size) {
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; payload.length() < size; i++) {
+            payload.append(i == 0 ? "" : ",")
+                    .append("{\"id\": ").append(i)
+                    .append(", \"content\": \"My Article\", \"secret-code\": \"1234-ABCD\"}");
+        }
+        return payload.append("]").toString().getBytes(UTF_8);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchMethodException, URISyntaxException {
+        Method method = BenchmarkResource.class.getDeclaredMethod(resourceMethod);
+        byte[] payload = generatePayload(payloadSize);
+
+        MockHttpRequest request = MockHttpRequest.create("POST", "example.company.com/article?"
+                        + "param0=value0&param1=value1&param2=value2&param3=value3&param4=value4"
+                        + "&param5=value5&param6=value6&param7=value7&param8=value8&param9=value9")
+                .contentType(APPLICATION_JSON_TYPE)
+                .content(payload);
+        for (int i = 0; i < 20; i++) {
+            request.header("X-Header-" + i, "value" + i);
+        }
+        request.header("User-Agent", "Benchmark");
+        requestContext = new PreMatchContainerRequestContext(request);
+
+        Headers<Object> headers = new Headers<>();
+        headers.add(CONTENT_TYPE, APPLICATION_JSON_TYPE.toString());
+        BuiltResponse response = new BuiltResponse(200, headers, payload, null);
+        responseContext = new ContainerResponseContextImpl(request, new MockHttpResponse(), response);
+
+        readerContext = new BenchmarkReaderContext(payload, APPLICATION_JSON_TYPE);
+        writerContext = new BenchmarkWriterContext(payload, APPLICATION_JSON_TYPE);
+
+        filter = new LoggedFilter();
+        filter.setContextStorage(contextStorage);
+        filter.requestContext = requestContext;
+        filter.resourceInfo = new ResourceInfo() {
+
+            @Override
+            public Method getResourceMethod() {
+                return method;
+            }
+
+            @Override
+            public Class<?> getResourceClass() {
+                return BenchmarkResource.class;
+            }
+
+        };
+    }
+
+    @Benchmark
+    public void exchange() throws IOException {
+        readerContext.reset();
+        writerContext.reset();
+        filter.filter(requestContext);
+        filter.aroundReadFrom(readerContext);
+        filter.filter(requestContext, responseContext);
+        filter.aroundWriteTo(writerContext);
+    }
+
+    @Logged
+    public interface BenchmarkResource {
+
+        void noBodyLogging();
+
+        @LoggedBody(LogType.MDC)
+        void bodyAsMdc();
+
+        @LoggedBody(value = LogType.MDC, filters = SensitiveBodyFilter.class)
+        void bodyAsMdcWithFilter();
+
+        @LoggedBody(value = LogType.MDC, maskedPaths = "$..secret-code")
+        void bodyAsMdcWithMasking();
+
+        @LoggedMapping(type = HEADER, mdcKey = "user-agent", paramNames = "User-Agent")
+        @LoggedMapping(type = HEADER, paramNames = "X-Header-0")
+        @LoggedMapping(type = QUERY, mdcKey = "param", paramNames = {"param", "param0"})
+        @LoggedMapping(type = HEADER, auto = true, mdcPrefix = "header-")
+        @LoggedMapping(type = QUERY, auto = true, mdcPrefix = "query-")
+        void autoMappings();
+
+    }
+
+}
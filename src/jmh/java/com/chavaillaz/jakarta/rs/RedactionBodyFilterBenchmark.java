@@ -0,0 +1,81 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the redaction of a number of keys in a body, comparing {@link RedactionBodyFilter}
+ * with a chain of filters each using its own regular expression, as commonly implemented.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedactionBodyFilterBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int keys;
+
+    @Param({"1024", "65536"})
+    public int payloadSize;
+
+    private String payload;
+    private List<LoggedBodyFilter> chainedFilters;
+    private LoggedBodyFilter redactionFilter;
+
+    @Setup
+    public void setup() {
+        List<String> names = IntStream.range(0, keys).mapToObj(i -> "secret-" + i).toList();
+
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; content.length() < payloadSize; i++) {
+            content.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append(", \"content\": \"My Article\"");
+            names.forEach(name -> content.append(", \"").append(name).append("\": \"1234-ABCD\""));
+            content.append("}");
+        }
+        payload = content.append("]").toString();
+
+        chainedFilters = names.stream()
+                .map(name -> Pattern.compile("(\"" + name + "\"\\s*:\\s*\")[^\"]*"))
+                .map(pattern -> (LoggedBodyFilter) body -> {
+                    Matcher matcher = pattern.matcher(body);
+                    String replaced = matcher.replaceAll("$1***");
+                    body.setLength(0);
+                    body.append(replaced);
+                })
+                .toList();
+        redactionFilter = new RedactionBodyFilter(names, List.of());
+    }
+
+    @Benchmark
+    public StringBuilder chainedRegex() {
+        StringBuilder body = new StringBuilder(payload);
+        chainedFilters.forEach(filter -> filter.filter(body));
+        return body;
+    }
+
+    @Benchmark
+    public StringBuilder redaction() {
+        StringBuilder body = new StringBuilder(payload);
+        redactionFilter.filter(body);
+        return body;
+    }
+
+}
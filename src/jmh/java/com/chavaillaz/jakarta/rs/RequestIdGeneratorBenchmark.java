@@ -0,0 +1,39 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.util.concurrent.TimeUnit;
+
+import com.chavaillaz.jakarta.rs.RequestIdGenerator.Standard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the standard request identifier generators (see {@link RequestIdGenerator.Standard}),
+ * run with as many threads as available processors to reveal any contention between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class RequestIdGeneratorBenchmark {
+
+    @Param
+    public Standard generator;
+
+    @Benchmark
+    public String generate() {
+        return generator.generate();
+    }
+
+}
@@ -5,47 +5,91 @@ import static java.lang.Math.min;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import org.apache.commons.io.output.ProxyOutputStream;
-
 /**
  * An output stream wrapping another output stream and limiting the number of bytes
  * effectively written into the wrapped output stream.
+ * <p>
+ * The bytes are written directly into the wrapped output stream, without any intermediate hook,
+ * and the streams capturing bodies (see {@link CaptureInputStream} and {@link CaptureOutputStream})
+ * stop calling this stream once its limit is reached (see {@link #acceptsBytes()}).
  */
-public class BoundedOutputStream extends ProxyOutputStream {
+public class BoundedOutputStream extends OutputStream {
 
     private final int limit;
+    private OutputStream out;
+    private boolean detached;
     private int writtenBytes = 0;
+    private long totalBytes = 0;
 
     public BoundedOutputStream(OutputStream out, int limit) {
-        super(out);
+        this.out = out;
         this.limit = limit;
     }
 
+    /**
+     * Detaches the wrapped output stream, ignoring any byte written afterward.
+     * Allows the wrapped output stream to be reused even if this stream is still referenced.
+     */
+    public void detach() {
+        out = OutputStream.nullOutputStream();
+        detached = true;
+    }
+
+    /**
+     * Indicates if some bytes can still be written into the wrapped output stream,
+     * meaning that the limit is not reached and the wrapped output stream is not detached.
+     *
+     * @return {@code true} if the bytes written are still kept, {@code false} if they are ignored
+     */
+    public boolean acceptsBytes() {
+        return !detached && (limit == -1 || writtenBytes < limit);
+    }
+
+    /**
+     * Gets the number of bytes effectively written into the wrapped output stream.
+     *
+     * @return The number of bytes written
+     */
+    public int getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Gets the number of bytes received by this stream, including the ones not written because of the limit.
+     *
+     * @return The total number of bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
     @Override
     public void write(int b) throws IOException {
+        totalBytes++;
         if (writtenBytes < limit || limit == -1) {
-            super.write(b);
+            out.write(b);
             writtenBytes++;
         }
     }
 
     @Override
-    public void write(byte[] b) throws IOException {
-        write(b, 0, b.length);
+    public void write(byte[] b, int off, int len) throws IOException {
+        totalBytes += len;
+        int count = limit == -1 ? len : min(len, limit - writtenBytes);
+        if (count > 0) {
+            out.write(b, off, count);
+            writtenBytes += count;
+        }
     }
 
     @Override
-    public void write(byte[] b, int off, int len) throws IOException {
-        if (limit == -1) {
-            super.write(b, off, len);
-            writtenBytes += len;
-        } else {
-            int count = min(len, limit - writtenBytes);
-            if (count > 0) {
-                super.write(b, off, count);
-                writtenBytes += count;
-            }
-        }
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
     }
 
-}
\ No newline at end of file
+}
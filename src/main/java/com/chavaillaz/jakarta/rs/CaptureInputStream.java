@@ -0,0 +1,71 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Input stream reading the bytes of a request entity while capturing them, until the limit of the given
+ * bounded stream is reached. The bytes are then only read, without calling the capturing side anymore,
+ * and only counted to know the size of the complete entity. Note that the bytes skipped are not captured.
+ */
+public class CaptureInputStream extends FilterInputStream implements CaptureStream {
+
+    private final OutputStream capture;
+    private final BoundedOutputStream bounded;
+    private long totalBytes;
+    private boolean truncated;
+
+    /**
+     * Creates a new stream capturing the bytes read.
+     *
+     * @param in      The stream from which the bytes are read
+     * @param capture The stream capturing the bytes, writing them into the bounded stream (possibly the same)
+     * @param bounded The stream limiting the number of bytes captured
+     */
+    public CaptureInputStream(InputStream in, OutputStream capture, BoundedOutputStream bounded) {
+        super(in);
+        this.capture = capture;
+        this.bounded = bounded;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return truncated || bounded.getTotalBytes() > bounded.getWrittenBytes();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            totalBytes++;
+            if (bounded.acceptsBytes()) {
+                capture.write(b);
+            } else {
+                truncated = true;
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int count = in.read(b, off, len);
+        if (count > 0) {
+            totalBytes += count;
+            if (bounded.acceptsBytes()) {
+                capture.write(b, off, count);
+            } else {
+                truncated = true;
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream writing the bytes of a response entity into the response stream while capturing them,
+ * until the limit of the given bounded stream is reached. The bytes are then only written into the response stream,
+ * without calling the capturing side anymore, and only counted to know the size of the complete entity.
+ */
+public class CaptureOutputStream extends OutputStream implements CaptureStream {
+
+    private final OutputStream out;
+    private final OutputStream capture;
+    private final BoundedOutputStream bounded;
+    private long totalBytes;
+    private boolean truncated;
+
+    /**
+     * Creates a new stream capturing the bytes written.
+     *
+     * @param out     The stream to which the bytes are written
+     * @param capture The stream capturing the bytes, writing them into the bounded stream (possibly the same)
+     * @param bounded The stream limiting the number of bytes captured
+     */
+    public CaptureOutputStream(OutputStream out, OutputStream capture, BoundedOutputStream bounded) {
+        this.out = out;
+        this.capture = capture;
+        this.bounded = bounded;
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return truncated || bounded.getTotalBytes() > bounded.getWrittenBytes();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        totalBytes++;
+        if (bounded.acceptsBytes()) {
+            capture.write(b);
+        } else {
+            truncated = true;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        totalBytes += len;
+        if (bounded.acceptsBytes()) {
+            capture.write(b, off, len);
+        } else {
+            truncated = true;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+        capture.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            capture.close();
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.chavaillaz.jakarta.rs;
+
+/**
+ * Stream reading or writing the bytes of an entity while capturing them, until the limit of a bounded stream
+ * is reached (see {@link CaptureInputStream} and {@link CaptureOutputStream}).
+ */
+public interface CaptureStream {
+
+    /**
+     * Gets the number of bytes of the entity, counted before being given to the capturing side,
+     * which may rewrite them (for example when masking some fields).
+     *
+     * @return The total number of bytes
+     */
+    long getTotalBytes();
+
+    /**
+     * Indicates if some bytes were not captured because of the limit of the bounded stream.
+     *
+     * @return {@code true} if the bytes captured are incomplete, {@code false} otherwise
+     */
+    boolean isTruncated();
+
+}
@@ -0,0 +1,33 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.io.OutputStream;
+
+import org.apache.commons.io.output.ProxyOutputStream;
+
+/**
+ * Output stream marking in the given context the time at which the first byte is written
+ * (see {@link LoggedContext#markFirstByte()}), in order to measure the time to first byte of responses.
+ */
+public class FirstByteOutputStream extends ProxyOutputStream {
+
+    private final LoggedContext context;
+
+    /**
+     * Creates a new stream marking the first byte written.
+     *
+     * @param delegate The stream to which the bytes are written
+     * @param context  The context of the request in which the first byte is marked
+     */
+    public FirstByteOutputStream(OutputStream delegate, LoggedContext context) {
+        super(delegate);
+        this.context = context;
+    }
+
+    @Override
+    protected void beforeWrite(int length) {
+        if (length > 0) {
+            context.markFirstByte();
+        }
+    }
+
+}
@@ -0,0 +1,361 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedField.DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.FIRST_BYTE_DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.READ_DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_BODY;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_ID;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_METHOD;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_PARAMETERS;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_URI;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_CLASS;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_METHOD;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_BODY;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_STATUS;
+import static com.chavaillaz.jakarta.rs.LoggedField.getDefaultFields;
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Objects.requireNonNullElseGet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sink writing each request processed as a compact JSON object on a single line (see {@link LoggedExchange}),
+ * using the MDC field names as keys (see {@link LoggedField}), the values of the mapped parameters being
+ * grouped in a nested object (see {@link #MAPPINGS_KEY}) so that they never overwrite the other keys.
+ * <p>
+ * The JSON is encoded in UTF-8 directly into a buffer for each request, without formatting any message
+ * nor creating any intermediate string, and written with a single call to the given output stream, without
+ * any lock in the sink. The output stream must therefore support concurrent writes of complete lines
+ * (such as {@link java.io.PrintStream}), or only be used from the thread of a {@link LoggedEmitter}.
+ * It is not flushed after each line (see {@link #flush()}).
+ */
+public class JsonEventSink implements LoggedEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonEventSink.class);
+
+    /**
+     * Key of the nested object containing the values of the mapped parameters (see {@link LoggedMapping}).
+     */
+    protected static final String MAPPINGS_KEY = "mappings";
+
+    private final OutputStream output;
+    private final TimeUnit durationUnit;
+    private final Map<String, String> fields;
+    private final AtomicReference<JsonLine> spare = new AtomicReference<>();
+
+    /**
+     * Creates a new sink writing the durations in milliseconds with the default MDC field names.
+     *
+     * @param output The stream in which the lines are written
+     */
+    public JsonEventSink(OutputStream output) {
+        this(output, MILLISECONDS);
+    }
+
+    /**
+     * Creates a new sink with the default MDC field names.
+     *
+     * @param output       The stream in which the lines are written
+     * @param durationUnit The precision of the durations written
+     */
+    public JsonEventSink(OutputStream output, TimeUnit durationUnit) {
+        this(output, durationUnit, getDefaultFields());
+    }
+
+    /**
+     * Creates a new sink.
+     *
+     * @param output       The stream in which the lines are written
+     * @param durationUnit The precision of the durations written
+     * @param fields       The names of the fields by {@link LoggedField} name (see {@link LoggedFilter#getMdcFields()}),
+     *                     the default names being used for the missing ones
+     */
+    public JsonEventSink(OutputStream output, TimeUnit durationUnit, Map<String, String> fields) {
+        this.output = output;
+        this.durationUnit = durationUnit;
+        this.fields = new HashMap<>(getDefaultFields());
+        this.fields.putAll(fields);
+    }
+
+    @Override
+    public void accept(LoggedExchange exchange) {
+        // Buffer of the last line written reused if not taken by a concurrent call
+        JsonLine line = requireNonNullElseGet(spare.getAndSet(null), JsonLine::new);
+        try {
+            encode(line, exchange);
+            output.write(line.buffer, 0, line.count);
+        } catch (IOException e) {
+            log.warn("Unable to write logged exchange", e);
+        } finally {
+            if (line.reset()) {
+                spare.set(line);
+            }
+        }
+    }
+
+    /**
+     * Flushes the output stream, for example before the shutdown of the application.
+     */
+    public void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            log.warn("Unable to flush logged exchanges", e);
+        }
+    }
+
+    /**
+     * Gets the name of the given field.
+     *
+     * @param field The field
+     * @return The name configured or the default one
+     */
+    protected String getField(LoggedField field) {
+        return fields.get(field.name());
+    }
+
+    /**
+     * Encodes the given request and its response as a JSON line into the given buffer.
+     *
+     * @param line     The buffer in which the line is encoded
+     * @param exchange The request and its response
+     */
+    protected void encode(JsonLine line, LoggedExchange exchange) {
+        line.writeByte('{');
+        line.writeKey(getField(REQUEST_ID), false);
+        line.writeString(exchange.requestId());
+        line.writeKey(getField(REQUEST_METHOD), true);
+        line.writeString(exchange.method());
+        line.writeKey(getField(REQUEST_URI), true);
+        line.writeString(exchange.uri());
+        if (exchange.parameters() != null && !exchange.parameters().isEmpty()) {
+            line.writeKey(getField(REQUEST_PARAMETERS), true);
+            line.writeString(exchange.parameters());
+        }
+        if (exchange.resourceClass() != null) {
+            line.writeKey(getField(RESOURCE_CLASS), true);
+            line.writeString(exchange.resourceClass());
+            line.writeKey(getField(RESOURCE_METHOD), true);
+            line.writeString(exchange.resourceMethod());
+        }
+        line.writeKey(getField(RESPONSE_STATUS), true);
+        line.writeLong(exchange.status());
+        line.writeKey(getField(DURATION), true);
+        line.writeLong(durationUnit.convert(exchange.duration(), NANOSECONDS));
+        if (exchange.readDuration() >= 0) {
+            line.writeKey(getField(READ_DURATION), true);
+            line.writeLong(durationUnit.convert(exchange.readDuration(), NANOSECONDS));
+        }
+        if (exchange.firstByteDuration() >= 0) {
+            line.writeKey(getField(FIRST_BYTE_DURATION), true);
+            line.writeLong(durationUnit.convert(exchange.firstByteDuration(), NANOSECONDS));
+        }
+        if (!exchange.mappings().isEmpty()) {
+            line.writeKey(MAPPINGS_KEY, true);
+            line.writeByte('{');
+            boolean separated = false;
+            for (Map.Entry<String, String> mapping : exchange.mappings().entrySet()) {
+                line.writeKey(mapping.getKey(), separated);
+                line.writeString(mapping.getValue());
+                separated = true;
+            }
+            line.writeByte('}');
+        }
+        if (exchange.requestBody() != null) {
+            line.writeKey(getField(REQUEST_BODY), true);
+            line.writeString(exchange.requestBody());
+        }
+        if (exchange.responseBody() != null) {
+            line.writeKey(getField(RESPONSE_BODY), true);
+            line.writeString(exchange.responseBody());
+        }
+        line.writeByte('}');
+        line.writeByte('\n');
+    }
+
+    /**
+     * Buffer in which a single line is encoded, used by one call at a time.
+     */
+    protected static class JsonLine {
+
+        /**
+         * Initial capacity of the buffer in bytes.
+         */
+        protected static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * Capacity in bytes above which the buffer is not kept once the line written,
+         * to avoid retaining the memory of an exceptionally large body.
+         */
+        protected static final int MAX_RETAINED_CAPACITY = 65536;
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+        private static final byte[] NULL = "null".getBytes(US_ASCII);
+
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+        private int count;
+
+        /**
+         * Empties the buffer once its line written.
+         *
+         * @return {@code true} if the buffer can be reused, {@code false} if it is too large to be kept
+         */
+        protected boolean reset() {
+            count = 0;
+            return buffer.length <= MAX_RETAINED_CAPACITY;
+        }
+
+        /**
+         * Writes the given key followed by its separator.
+         *
+         * @param key       The key to be written
+         * @param separated {@code true} to write a comma before the key, {@code false} otherwise
+         */
+        protected void writeKey(String key, boolean separated) {
+            if (separated) {
+                writeByte(',');
+            }
+            writeString(key);
+            writeByte(':');
+        }
+
+        /**
+         * Writes the given value as a JSON string encoded in UTF-8, or {@code null} if not defined.
+         * A deferred body is computed once instead of for each character read (see {@link LoggedDeferredBody}).
+         *
+         * @param value The value to be written
+         */
+        protected void writeString(CharSequence value) {
+            if (value == null) {
+                ensureCapacity(count + NULL.length);
+                System.arraycopy(NULL, 0, buffer, count, NULL.length);
+                count += NULL.length;
+                return;
+            }
+
+            CharSequence text = value instanceof LoggedDeferredBody ? value.toString() : value;
+            int length = text.length();
+            writeByte('"');
+            for (int i = 0; i < length; i++) {
+                // Maximum size of a character escaped or encoded
+                ensureCapacity(count + 6);
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer[count++] = '\\';
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x20) {
+                    writeControl(c);
+                } else if (c < 0x80) {
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[count++] = (byte) (0xC0 | c >> 6);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    buffer[count++] = '?';
+                } else {
+                    buffer[count++] = (byte) (0xE0 | c >> 12);
+                    buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            writeByte('"');
+        }
+
+        /**
+         * Writes the given control character escaped, the capacity being already ensured.
+         *
+         * @param c The control character to be written
+         */
+        protected void writeControl(char c) {
+            buffer[count++] = '\\';
+            switch (c) {
+                case '\n' -> buffer[count++] = 'n';
+                case '\r' -> buffer[count++] = 'r';
+                case '\t' -> buffer[count++] = 't';
+                case '\b' -> buffer[count++] = 'b';
+                case '\f' -> buffer[count++] = 'f';
+                default -> {
+                    buffer[count++] = 'u';
+                    buffer[count++] = '0';
+                    buffer[count++] = '0';
+                    buffer[count++] = HEX[c >> 4];
+                    buffer[count++] = HEX[c & 0xF];
+                }
+            }
+        }
+
+        /**
+         * Writes the given number without creating any string.
+         *
+         * @param value The number to be written
+         */
+        protected void writeLong(long value) {
+            if (value == Long.MIN_VALUE) {
+                byte[] digits = Long.toString(value).getBytes(US_ASCII);
+                ensureCapacity(count + digits.length);
+                System.arraycopy(digits, 0, buffer, count, digits.length);
+                count += digits.length;
+                return;
+            }
+
+            // Maximum number of digits of a long with its sign
+            ensureCapacity(count + 20);
+            if (value < 0) {
+                buffer[count++] = '-';
+                value = -value;
+            }
+            int start = count;
+            do {
+                buffer[count++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            // Digits written from the least significant one
+            for (int left = start, right = count - 1; left < right; left++, right--) {
+                byte digit = buffer[left];
+                buffer[left] = buffer[right];
+                buffer[right] = digit;
+            }
+        }
+
+        /**
+         * Writes the given ASCII character.
+         *
+         * @param c The character to be written
+         */
+        protected void writeByte(char c) {
+            ensureCapacity(count + 1);
+            buffer[count++] = (byte) c;
+        }
+
+        /**
+         * Grows the buffer, at least doubling its capacity, when the given capacity is not available.
+         *
+         * @param capacity The minimum capacity needed in bytes
+         */
+        protected void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, max(capacity, buffer.length << 1));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,438 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOf;
+import static java.util.Objects.checkFromIndexSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An output stream masking the values of some fields of a JSON document while it is written,
+ * before writing it into the wrapped output stream (see {@link LoggedBody#maskedPaths()}).
+ * <p>
+ * The document is tokenized byte by byte in a single pass, without being decoded nor kept in memory,
+ * and each value (string, number, literal, object or array) located at one of the given paths
+ * is replaced by {@link #MASK}. Invalid documents are written as they are, possibly partially masked.
+ * <p>
+ * Note that this class is not thread-safe, an instance being used for a single body.
+ */
+public class JsonMaskingOutputStream extends OutputStream {
+
+    /**
+     * Value written instead of the masked values.
+     */
+    public static final String MASK = "\"***\"";
+
+    private static final byte[] MASK_BYTES = MASK.getBytes(UTF_8);
+    private static final int MAX_KEY_LENGTH = 256;
+
+    private static final int DEFAULT = 0;
+    private static final int STRING = 1;
+    private static final int STRING_ESCAPE = 2;
+    private static final int SCALAR = 3;
+    private static final int SKIP_STRING = 4;
+    private static final int SKIP_STRING_ESCAPE = 5;
+    private static final int SKIP_SCALAR = 6;
+    private static final int SKIP_CONTAINER = 7;
+    private static final int SKIP_CONTAINER_STRING = 8;
+    private static final int SKIP_CONTAINER_STRING_ESCAPE = 9;
+
+    private final OutputStream out;
+    private final Paths paths;
+    private final byte[] single = new byte[1];
+    private final byte[] key = new byte[MAX_KEY_LENGTH];
+    private int keyLength;
+    private int mode = DEFAULT;
+    private boolean keyString;
+    private boolean expectKey;
+    private int skipDepth;
+    private int depth;
+    private boolean[] objects = new boolean[8];
+    private BitSet[] states = new BitSet[8];
+    private BitSet[] childStates = new BitSet[8];
+    private boolean[] childMatched = new boolean[8];
+
+    /**
+     * Creates a new masking output stream.
+     *
+     * @param out   The output stream in which writing the masked document
+     * @param paths The paths of the fields to be masked
+     */
+    public JsonMaskingOutputStream(OutputStream out, Paths paths) {
+        this.out = out;
+        this.paths = paths;
+        this.childStates[0] = paths.initialStates();
+        this.childMatched[0] = paths.root();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkFromIndexSize(off, len, b.length);
+        int end = off + len;
+        // Start of the bytes to be written as they are
+        int run = off;
+        for (int i = off; i < end; i++) {
+            byte c = b[i];
+            switch (mode) {
+                case DEFAULT -> {
+                    if (isValueStart(c) && childMatched[depth]) {
+                        out.write(b, run, i - run);
+                        out.write(MASK_BYTES);
+                        run = i + 1;
+                        mode = switch (c) {
+                            case '"' -> SKIP_STRING;
+                            case '{', '[' -> {
+                                skipDepth = 1;
+                                yield SKIP_CONTAINER;
+                            }
+                            default -> SKIP_SCALAR;
+                        };
+                    } else {
+                        processDefault(c);
+                    }
+                }
+                case STRING -> {
+                    if (c == '\\') {
+                        mode = STRING_ESCAPE;
+                        appendKey(c);
+                    } else if (c == '"') {
+                        mode = DEFAULT;
+                        if (keyString) {
+                            endKey();
+                        }
+                    } else {
+                        appendKey(c);
+                    }
+                }
+                case STRING_ESCAPE -> {
+                    mode = STRING;
+                    appendKey(c);
+                }
+                case SCALAR -> {
+                    if (isDelimiter(c)) {
+                        mode = DEFAULT;
+                        processDefault(c);
+                    }
+                }
+                case SKIP_STRING -> {
+                    run = i + 1;
+                    if (c == '\\') {
+                        mode = SKIP_STRING_ESCAPE;
+                    } else if (c == '"') {
+                        mode = DEFAULT;
+                    }
+                }
+                case SKIP_STRING_ESCAPE -> {
+                    run = i + 1;
+                    mode = SKIP_STRING;
+                }
+                case SKIP_SCALAR -> {
+                    if (isDelimiter(c)) {
+                        mode = DEFAULT;
+                        processDefault(c);
+                    } else {
+                        run = i + 1;
+                    }
+                }
+                case SKIP_CONTAINER -> {
+                    run = i + 1;
+                    if (c == '"') {
+                        mode = SKIP_CONTAINER_STRING;
+                    } else if (c == '{' || c == '[') {
+                        skipDepth++;
+                    } else if ((c == '}' || c == ']') && --skipDepth == 0) {
+                        mode = DEFAULT;
+                    }
+                }
+                case SKIP_CONTAINER_STRING -> {
+                    run = i + 1;
+                    if (c == '\\') {
+                        mode = SKIP_CONTAINER_STRING_ESCAPE;
+                    } else if (c == '"') {
+                        mode = SKIP_CONTAINER;
+                    }
+                }
+                case SKIP_CONTAINER_STRING_ESCAPE -> {
+                    run = i + 1;
+                    mode = SKIP_CONTAINER_STRING;
+                }
+                default -> throw new IllegalStateException("Unknown mode " + mode);
+            }
+        }
+        if (run < end) {
+            out.write(b, run, end - run);
+        }
+    }
+
+    /**
+     * Processes a byte between tokens, which is not the start of a masked value.
+     *
+     * @param c The byte to be processed
+     */
+    private void processDefault(byte c) {
+        switch (c) {
+            case '{' -> push(true);
+            case '[' -> {
+                push(false);
+                childMatched[depth] = paths.descend(states[depth], null, 0, childStates[depth]);
+            }
+            case '}', ']' -> {
+                if (depth > 0) {
+                    depth--;
+                }
+                expectKey = false;
+            }
+            case ',' -> expectKey = objects[depth];
+            case '"' -> {
+                mode = STRING;
+                keyString = expectKey;
+                keyLength = 0;
+            }
+            case ':', ' ', '\t', '\n', '\r' -> {
+                // Nothing to do
+            }
+            default -> mode = SCALAR;
+        }
+    }
+
+    private void push(boolean object) {
+        depth++;
+        if (depth == objects.length) {
+            objects = copyOf(objects, depth * 2);
+            states = copyOf(states, depth * 2);
+            childStates = copyOf(childStates, depth * 2);
+            childMatched = copyOf(childMatched, depth * 2);
+        }
+        if (states[depth] == null) {
+            states[depth] = new BitSet();
+            childStates[depth] = new BitSet();
+        }
+        states[depth].clear();
+        states[depth].or(childStates[depth - 1]);
+        objects[depth] = object;
+        childMatched[depth] = false;
+        expectKey = object;
+    }
+
+    private void appendKey(byte c) {
+        if (keyString && keyLength < MAX_KEY_LENGTH) {
+            key[keyLength] = c;
+        }
+        keyLength++;
+    }
+
+    private void endKey() {
+        keyString = false;
+        expectKey = false;
+        if (keyLength > MAX_KEY_LENGTH) {
+            // Too long to be one of the configured names
+            childStates[depth].clear();
+            childMatched[depth] = false;
+        } else {
+            childMatched[depth] = paths.descend(states[depth], key, keyLength, childStates[depth]);
+        }
+    }
+
+    private boolean isValueStart(byte c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\r', ',', ':', '}', ']' -> false;
+            case '"' -> !expectKey;
+            default -> true;
+        };
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\r', ',', '}', ']' -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Paths of the fields to be masked, compiled once to be shared between all the bodies to be masked.
+     * The following subset of JSONPath is supported:
+     * <ul>
+     *     <li>{@code $} for the root of the document</li>
+     *     <li>{@code .name} or {@code ['name']} for a field of an object</li>
+     *     <li>{@code ..name} for a field at any depth</li>
+     *     <li>{@code [*]} for all the elements of an array</li>
+     *     <li>{@code .*} for all the fields of an object or elements of an array</li>
+     * </ul>
+     * For example {@code $.password}, {@code $..iban} or {@code $.cards[*].number}.
+     */
+    public static final class Paths {
+
+        private final byte[][] names;
+        private final boolean[] recursive;
+        private final boolean[] elements;
+        private final boolean[] last;
+        private final BitSet initial = new BitSet();
+        private final boolean root;
+
+        private Paths(List<List<Segment>> compiled) {
+            int count = compiled.stream().mapToInt(List::size).sum();
+            this.names = new byte[count][];
+            this.recursive = new boolean[count];
+            this.elements = new boolean[count];
+            this.last = new boolean[count];
+            boolean matchRoot = false;
+            int index = 0;
+            for (List<Segment> segments : compiled) {
+                if (segments.isEmpty()) {
+                    matchRoot = true;
+                    continue;
+                }
+                initial.set(index);
+                for (int i = 0; i < segments.size(); i++, index++) {
+                    Segment segment = segments.get(i);
+                    names[index] = segment.name() != null ? segment.name().getBytes(UTF_8) : null;
+                    recursive[index] = segment.recursive();
+                    elements[index] = segment.element();
+                    last[index] = i == segments.size() - 1;
+                }
+            }
+            this.root = matchRoot;
+        }
+
+        /**
+         * Compiles the given paths.
+         *
+         * @param paths The paths of the fields to be masked
+         * @return The paths compiled
+         * @throws IllegalArgumentException If one of the paths is invalid or not supported
+         */
+        public static Paths compile(String... paths) {
+            List<List<Segment>> compiled = new ArrayList<>();
+            for (String path : paths) {
+                compiled.add(parse(path));
+            }
+            return new Paths(compiled);
+        }
+
+        private static List<Segment> parse(String path) {
+            if (path == null || !path.startsWith("$")) {
+                throw new IllegalArgumentException("Masked path must start with $: " + path);
+            }
+            List<Segment> segments = new ArrayList<>();
+            int position = 1;
+            while (position < path.length()) {
+                boolean deep = path.startsWith("..", position);
+                if (deep) {
+                    position += 2;
+                } else if (path.charAt(position) == '.') {
+                    position++;
+                }
+                if (path.startsWith("[*]", position)) {
+                    segments.add(new Segment(null, deep, true));
+                    position += 3;
+                } else if (path.startsWith("['", position)) {
+                    int end = path.indexOf("']", position + 2);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed bracket in masked path: " + path);
+                    }
+                    segments.add(new Segment(path.substring(position + 2, end), deep, false));
+                    position = end + 2;
+                } else {
+                    int end = position;
+                    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == position) {
+                        throw new IllegalArgumentException("Empty field name in masked path: " + path);
+                    }
+                    String name = path.substring(position, end);
+                    segments.add("*".equals(name) ? new Segment(null, deep, false) : new Segment(name, deep, false));
+                    position = end;
+                }
+            }
+            return segments;
+        }
+
+        /**
+         * Indicates if the complete document must be masked.
+         *
+         * @return {@code true} if one of the paths is {@code $}, {@code false} otherwise
+         */
+        boolean root() {
+            return root;
+        }
+
+        /**
+         * Gets the states of the paths for the root of the document.
+         *
+         * @return A new set of states
+         */
+        BitSet initialStates() {
+            return (BitSet) initial.clone();
+        }
+
+        /**
+         * Computes the states of the paths for a child of a value, from the states of the paths for the value.
+         *
+         * @param parent The states of the paths for the value
+         * @param name   The name of the field or {@code null} for an element of an array
+         * @param length The length of the name
+         * @param child  The states of the paths for the child, replaced by this method
+         * @return {@code true} if the child must be masked, {@code false} otherwise
+         */
+        boolean descend(BitSet parent, byte[] name, int length, BitSet child) {
+            child.clear();
+            boolean matched = false;
+            for (int index = parent.nextSetBit(0); index >= 0; index = parent.nextSetBit(index + 1)) {
+                if (recursive[index]) {
+                    child.set(index);
+                }
+                if (matches(index, name, length)) {
+                    if (last[index]) {
+                        matched = true;
+                    } else {
+                        child.set(index + 1);
+                    }
+                }
+            }
+            return matched;
+        }
+
+        private boolean matches(int index, byte[] name, int length) {
+            byte[] expected = names[index];
+            if (expected == null) {
+                // Wildcard for any field or element, or only for elements
+                return !elements[index] || name == null;
+            }
+            if (name == null || expected.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (expected[i] != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private record Segment(String name, boolean recursive, boolean element) {
+        }
+
+    }
+
+}
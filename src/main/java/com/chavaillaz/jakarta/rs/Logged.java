@@ -27,4 +27,37 @@ public @interface Logged {
      */
     LoggedBody[] value() default {};
 
+    /**
+     * Ratio of the requests to be logged, between 0 and 1, decided when they are received.
+     * The requests not sampled are logged only if they failed or were slow (see {@link #errorStatus()}
+     * and {@link #slowThreshold()}), but without their request body.
+     *
+     * @return The ratio of requests to be logged
+     */
+    double sampling() default 1;
+
+    /**
+     * Maximum number of requests to be logged per second for each resource method, after the sampling ratio.
+     * The requests exceeding this limit are handled as the requests not sampled (see {@link #sampling()}).
+     *
+     * @return The maximum number of requests logged per second or -1 if not limited
+     */
+    int rateLimit() default -1;
+
+    /**
+     * Duration from which the requests not sampled are still logged.
+     * Only used when requests are sampled (see {@link #sampling()} and {@link #rateLimit()}).
+     *
+     * @return The duration in milliseconds or -1 to not log slow requests not sampled
+     */
+    long slowThreshold() default -1;
+
+    /**
+     * Response status from which the requests not sampled are still logged.
+     * Only used when requests are sampled (see {@link #sampling()} and {@link #rateLimit()}).
+     *
+     * @return The response status or -1 to not log failed requests not sampled
+     */
+    int errorStatus() default 500;
+
 }
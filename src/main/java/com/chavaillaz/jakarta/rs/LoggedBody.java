@@ -51,6 +51,85 @@ public @interface LoggedBody {
      */
     Class<? extends LoggedBodyFilter>[] filters() default {};
 
+    /**
+     * Indicates the paths of the fields to be masked in JSON bodies, for example {@code $.password} or {@code $..iban}
+     * (see {@link JsonMaskingOutputStream.Paths} for the supported syntax). The masking is done while the body
+     * is captured, before the size limit and the filters are applied, and only for JSON media types.
+     *
+     * @return The paths of the fields to be masked
+     */
+    String[] maskedPaths() default {};
+
+    /**
+     * Indicates the keys whose values must be redacted, ignoring the case, for example {@code password}
+     * to redact the values in {@code "password": "secret"} or {@code password=secret}.
+     * The redaction is done before the filters, with all the keys and patterns in a single scan
+     * (see {@link RedactionBodyFilter}).
+     *
+     * @return The keys whose values must be redacted
+     */
+    String[] redactedKeys() default {};
+
+    /**
+     * Indicates the regular expressions whose matches must be redacted, for example {@code \\d{4}-\\d{4}}.
+     * The redaction is done before the filters, with all the keys and patterns in a single scan
+     * (see {@link RedactionBodyFilter}).
+     *
+     * @return The regular expressions whose matches must be redacted
+     */
+    String[] redactedPatterns() default {};
+
+    /**
+     * Indicates if the body must be logged only for failed requests, meaning with a response status 4xx or 5xx,
+     * or slow requests (see {@link #tailThreshold()}). The request body is still captured, but only decoded
+     * and filtered when it must be logged, its buffer being released unread otherwise. The response body is
+     * captured only when it must be logged, the status and the duration being known before it is written.
+     * <p>
+     * Note that the request body is then logged once the response computed, just before the processing log line.
+     *
+     * @return {@code true} to log the body only for failed or slow requests, {@code false} to always log it
+     */
+    boolean tail() default false;
+
+    /**
+     * Duration from which the body of requests is logged when only logged for failed or slow requests
+     * (see {@link #tail()}).
+     *
+     * @return The duration in milliseconds or -1 to only log the body of failed requests
+     */
+    long tailThreshold() default -1;
+
+    /**
+     * Indicates the media types of the bodies to be captured, supporting wildcards such as {@code text/*}
+     * or {@code application/*+json}. The bodies whose media type is unknown are always captured.
+     * <p>
+     * By default, only textual media types are captured, the other bodies (such as images or archives)
+     * flowing through without any capture, or only being summarized (see {@link #summary()}).
+     *
+     * @return The media types of the bodies to be captured
+     */
+    String[] mediaTypes() default {"text/*", "application/json", "application/*+json", "application/xml",
+            "application/*+xml", "application/x-www-form-urlencoded"};
+
+    /**
+     * Indicates the media types of the bodies never to be captured, even if matching {@link #mediaTypes()},
+     * supporting the same wildcards. By default, server-sent events are excluded since streamed without end.
+     * Note that the response entities written as {@code StreamingOutput} are never captured.
+     *
+     * @return The media types of the bodies not to be captured
+     */
+    String[] excludedMediaTypes() default {"text/event-stream"};
+
+    /**
+     * Indicates if the bodies not captured because of their media type must be summarized instead,
+     * with their media type, size and SHA-256 hash, for example
+     * {@code [application/pdf, 1024 bytes, SHA-256 9f86d0...]}.
+     * The bodies are then hashed while flowing through, without being kept in memory.
+     *
+     * @return {@code true} to summarize the bodies not captured, {@code false} to not log them
+     */
+    boolean summary() default false;
+
     /**
      * Indicates whether the logging configuration must be applied to the request, the response, or both.
      *
@@ -0,0 +1,249 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.Math.max;
+import static java.util.Objects.checkFromIndexSize;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * An output stream capturing a request or response body in memory, giving access to the captured bytes
+ * without copying them and decoding them at most once for logging.
+ * <p>
+ * When the body has not been entirely captured (see {@link #setTotalSize(long)}), the decoding stops
+ * at the last complete character, so that a multibyte character cut by the size limit is not logged partially.
+ * <p>
+ * Note that this class is not thread-safe, an instance being used for a single body at a time.
+ */
+public class LoggedBodyBuffer extends OutputStream {
+
+    /**
+     * Default initial capacity of the buffer in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * Number of characters decoded at once when decoding the captured bytes.
+     */
+    protected static final int DECODING_CHUNK = 1024;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private byte[] buffer;
+    private int count;
+    private long totalSize = -1;
+    private boolean truncated;
+    private CharBuffer chunk;
+    private CharsetDecoder decoder;
+
+    /**
+     * Creates a new buffer with the default initial capacity.
+     */
+    public LoggedBodyBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new buffer with the given initial capacity.
+     *
+     * @param capacity The initial capacity in bytes
+     */
+    public LoggedBodyBuffer(int capacity) {
+        this.buffer = new byte[max(capacity, 0)];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        checkFromIndexSize(off, len, b.length);
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * Grows the buffer, at least doubling its capacity, when the given capacity is not available.
+     *
+     * @param capacity The minimum capacity needed in bytes
+     */
+    protected void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, max(capacity, max(buffer.length * 2, DEFAULT_CAPACITY)));
+        }
+    }
+
+    /**
+     * Gets the number of bytes captured.
+     *
+     * @return The size of the body captured in bytes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the capacity of the buffer, meaning the number of bytes that can be captured without growing it.
+     *
+     * @return The capacity in bytes
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Indicates if no byte has been captured.
+     *
+     * @return {@code true} if the buffer is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Sets the size of the complete body, including the bytes that were not captured because of a size limit.
+     *
+     * @param totalSize The size of the complete body in bytes
+     */
+    public void setTotalSize(long totalSize) {
+        setTotalSize(totalSize, totalSize > count);
+    }
+
+    /**
+     * Sets the size of the complete body, which may differ from the bytes captured when they were rewritten
+     * (for example when masking some fields), and whether some bytes were not captured because of a size limit.
+     *
+     * @param totalSize The size of the complete body in bytes
+     * @param truncated {@code true} if some bytes were not captured, {@code false} otherwise
+     */
+    public void setTotalSize(long totalSize, boolean truncated) {
+        this.totalSize = totalSize;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Gets the size of the complete body, including the bytes that were not captured because of a size limit.
+     *
+     * @return The size of the complete body in bytes
+     */
+    public long getTotalSize() {
+        return max(totalSize, count);
+    }
+
+    /**
+     * Indicates if some bytes of the body were not captured because of a size limit.
+     *
+     * @return {@code true} if the body captured is incomplete, {@code false} otherwise
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Discards all the bytes captured, keeping the current capacity.
+     */
+    public void reset() {
+        count = 0;
+        totalSize = -1;
+        truncated = false;
+    }
+
+    /**
+     * Gets a read-only view of the bytes captured, without copying them.
+     * Note that the view is only valid until the buffer is written again or reset.
+     *
+     * @return The bytes captured
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buffer, 0, count).asReadOnlyBuffer();
+    }
+
+    /**
+     * Decodes the bytes captured to a string, copying them only once when the body is complete.
+     *
+     * @param charset The charset of the body
+     * @return The body decoded
+     */
+    public String toString(Charset charset) {
+        if (isTruncated()) {
+            return decode(charset).toString();
+        }
+        return new String(buffer, 0, count, charset);
+    }
+
+    /**
+     * Decodes the bytes captured to a mutable sequence of characters, to be modified in place by body filters.
+     * The bytes are decoded incrementally in a single pass into the returned builder, without any intermediate string.
+     *
+     * @param charset The charset of the body
+     * @return The body decoded
+     */
+    public StringBuilder decode(Charset charset) {
+        CharsetDecoder charsetDecoder = getDecoder(charset);
+        CharBuffer output = getChunk();
+        StringBuilder builder = new StringBuilder((int) (count * (double) charsetDecoder.averageCharsPerByte()));
+        ByteBuffer input = ByteBuffer.wrap(buffer, 0, count);
+        // Incomplete characters at the end of a truncated body are left in the input
+        decode(charsetDecoder, input, output, builder, !isTruncated());
+        if (isTruncated()) {
+            decode(charsetDecoder, EMPTY, output, builder, true);
+        }
+        CoderResult result;
+        do {
+            result = charsetDecoder.flush(output);
+            appendChunk(output, builder);
+        } while (result.isOverflow());
+        return builder;
+    }
+
+    private static void decode(CharsetDecoder decoder, ByteBuffer input, CharBuffer output, StringBuilder builder, boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = decoder.decode(input, output, endOfInput);
+            appendChunk(output, builder);
+        } while (result.isOverflow());
+    }
+
+    private static void appendChunk(CharBuffer chunk, StringBuilder builder) {
+        builder.append(chunk.array(), 0, chunk.position());
+        chunk.clear();
+    }
+
+    /**
+     * Gets a decoder for the given charset, reusing the last one if the charset is the same.
+     *
+     * @param charset The charset of the body
+     * @return The decoder reset
+     */
+    protected CharsetDecoder getDecoder(Charset charset) {
+        if (decoder == null || !decoder.charset().equals(charset)) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        return decoder.reset();
+    }
+
+    /**
+     * Gets the buffer in which characters are decoded before being appended to the result, reused between decodings.
+     *
+     * @return The empty buffer of characters
+     */
+    protected CharBuffer getChunk() {
+        if (chunk == null) {
+            chunk = CharBuffer.allocate(DECODING_CHUNK);
+        }
+        return chunk.clear();
+    }
+
+}
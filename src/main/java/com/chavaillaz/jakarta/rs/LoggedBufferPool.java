@@ -0,0 +1,134 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of buffers used to capture request and response bodies, avoiding their allocation for each request.
+ * <p>
+ * The buffers are kept in a fixed number of slots, selected from the identifier of the current thread and probed
+ * without locking. It does not rely on thread-local storage, in order to keep reusing buffers with virtual threads,
+ * which are created for each request and never reused. When no buffer is available, a new one is created,
+ * and when no slot is available on release, the buffer is simply left to the garbage collector.
+ */
+public class LoggedBufferPool {
+
+    /**
+     * Default pool shared by all filters.
+     */
+    public static final LoggedBufferPool DEFAULT = new LoggedBufferPool(
+            4 * Runtime.getRuntime().availableProcessors(), 64 * 1024);
+
+    /**
+     * Number of slots probed when acquiring or releasing a buffer.
+     */
+    protected static final int PROBES = 4;
+
+    private final AtomicReferenceArray<LoggedBodyBuffer> slots;
+    private final int mask;
+    private final int maxCapacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * Creates a new pool of buffers.
+     *
+     * @param size        The maximum number of buffers kept, rounded to the next power of two
+     * @param maxCapacity The maximum capacity in bytes of the buffers kept, larger ones being discarded on release
+     */
+    public LoggedBufferPool(int size, int maxCapacity) {
+        int slotsCount = max(highestOneBit(max(size, 1) - 1) << 1, 1);
+        this.slots = new AtomicReferenceArray<>(slotsCount);
+        this.mask = slotsCount - 1;
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Gets the first slot to probe for the current thread.
+     *
+     * @return The index of the slot
+     */
+    protected int getStripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    }
+
+    /**
+     * Acquires an empty buffer, taken from the pool if available or created otherwise.
+     *
+     * @param limit The size limit of the body to be captured or -1 if no limit is applied
+     * @return The buffer to be used for the capture of a body
+     */
+    public LoggedBodyBuffer acquire(int limit) {
+        int stripe = getStripe();
+        for (int i = 0; i < PROBES; i++) {
+            int index = (stripe + i) & mask;
+            LoggedBodyBuffer buffer = slots.get(index);
+            if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+                hits.increment();
+                return buffer;
+            }
+        }
+        misses.increment();
+        return new LoggedBodyBuffer(limit > 0 ? min(limit, maxCapacity) : LoggedBodyBuffer.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Releases the given buffer to the pool, once its content is not used anymore.
+     * Note that the buffer must not be written after its release.
+     *
+     * @param buffer The buffer to be released
+     */
+    public void release(LoggedBodyBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        if (buffer.capacity() > maxCapacity) {
+            discards.increment();
+            return;
+        }
+
+        buffer.reset();
+        int stripe = getStripe();
+        for (int i = 0; i < PROBES; i++) {
+            int index = (stripe + i) & mask;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, buffer)) {
+                return;
+            }
+        }
+        discards.increment();
+    }
+
+    /**
+     * Gets the number of buffers acquired from the pool.
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of buffers created because none was available in the pool.
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of buffers released but not kept, being too large or the pool being full.
+     *
+     * @return The number of discards
+     */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.System.nanoTime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * State of a request processed by {@link LoggedFilter}, stored in the properties of the request
+ * when received and kept until its response is logged. The times are kept as primitives in nanoseconds,
+ * in order to compute the durations without any boxing or parsing, whatever their precision.
+ * <p>
+ * It is also the source of truth of the MDC of the request, which is a thread-local storage: its content is kept
+ * once the request received, in order to be restored when the response is processed after the request has been
+ * suspended, for example with {@link jakarta.ws.rs.container.AsyncResponse}, {@link java.util.concurrent.CompletionStage}
+ * or virtual threads. The context is installed for the thread processing the request, which then knows that
+ * it keeps the fields of another request when processing a response whose context is not the one installed.
+ * <p>
+ * With the storage {@link Storage#STRUCTURED}, the fields of the request are kept in this context instead of the MDC,
+ * the context being installed once for the thread processing the request and cleared once the response logged,
+ * instead of copying the MDC for each field put or removed. The fields are then resolved when reading them,
+ * for example by the logging backend with {@link LoggedContextDataProvider}.
+ */
+public class LoggedContext {
+
+    private static final ThreadLocal<LoggedContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, CharSequence> fields = new HashMap<>();
+    private final long startTime;
+    private long readTime = -1;
+    private long firstByteTime = -1;
+    private long responseTime = -1;
+    private int status = -1;
+    private Map<String, String> mappings;
+    private final Set<String> mdcKeys = new HashSet<>();
+    private Object converted;
+    private volatile Map<String, String> mdc;
+    private volatile boolean restored;
+
+    /**
+     * Creates a new context for a request received.
+     *
+     * @param startTime The time at which the request has been received, given by {@link System#nanoTime()}
+     */
+    public LoggedContext(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Gets the context installed for the current thread. Note that it can be the context of a request
+     * already logged, when suspended while processed by the current thread (see {@link #clear()}).
+     *
+     * @return The context of the request processed by the current thread or {@code null} if none
+     */
+    public static LoggedContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Removes the context installed for the current thread, if any.
+     */
+    public static void uninstall() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Installs this context for the current thread, replacing the one previously installed.
+     */
+    public void install() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Puts a field of the request, its value being resolved only when read.
+     *
+     * @param key   The key of the field
+     * @param value The value of the field
+     */
+    public void put(String key, CharSequence value) {
+        synchronized (fields) {
+            fields.put(key, value);
+            converted = null;
+        }
+    }
+
+    /**
+     * Gets a field of the request.
+     *
+     * @param key The key of the field
+     * @return The value of the field or {@code null} if not defined
+     */
+    public String get(String key) {
+        CharSequence value;
+        synchronized (fields) {
+            value = fields.get(key);
+        }
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Performs the given action for each field of the request, with its value resolved.
+     *
+     * @param action The action to be performed for each field
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        synchronized (fields) {
+            fields.forEach((key, value) -> action.accept(key, value.toString()));
+        }
+    }
+
+    /**
+     * Gets the fields of the request converted by the given function, the conversion being kept until the fields change,
+     * in order to supply them to the events of a logging backend without converting them for each event.
+     * Note that only one conversion is kept, the given function having to be always the same.
+     *
+     * @param converter The function converting the fields, called at most once until the fields change
+     * @param <T>       The type of the fields converted
+     * @return The fields converted
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getConverted(Function<LoggedContext, T> converter) {
+        synchronized (fields) {
+            if (converted == null) {
+                converted = converter.apply(this);
+            }
+            return (T) converted;
+        }
+    }
+
+    /**
+     * Keeps the key of a field of the request put in the MDC, in order to remove it from the threads
+     * having processed the request.
+     *
+     * @param key The MDC key of the field
+     */
+    public void putMdcKey(String key) {
+        synchronized (mdcKeys) {
+            mdcKeys.add(key);
+        }
+    }
+
+    /**
+     * Gets the keys of the fields of the request put in the MDC.
+     *
+     * @return The MDC keys of the fields
+     */
+    public Set<String> getMdcKeys() {
+        synchronized (mdcKeys) {
+            return Set.copyOf(mdcKeys);
+        }
+    }
+
+    /**
+     * Gets the number of fields of the request.
+     *
+     * @return The number of fields
+     */
+    public int size() {
+        synchronized (fields) {
+            return fields.size();
+        }
+    }
+
+    /**
+     * Gets the time at which the request has been received.
+     *
+     * @return The time in nanoseconds, given by {@link System#nanoTime()}
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the time elapsed since the request has been received.
+     *
+     * @return The time elapsed in nanoseconds
+     */
+    public long getElapsedTime() {
+        return nanoTime() - startTime;
+    }
+
+    /**
+     * Gets the time elapsed between the reception of the request and its response.
+     *
+     * @return The time in nanoseconds or -1 if the response is not known yet
+     */
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * Gets the status of the response.
+     *
+     * @return The status or -1 if the response is not known yet
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Marks the response of the request as known.
+     *
+     * @param status       The status of the response
+     * @param responseTime The time elapsed since the request has been received in nanoseconds
+     */
+    public void setResponse(int status, long responseTime) {
+        this.status = status;
+        this.responseTime = responseTime;
+    }
+
+    /**
+     * Gets the values of the parameters mapped (see {@link LoggedMapping}), when kept for a {@link LoggedEventSink}.
+     *
+     * @return The values by MDC key, in their mapping order
+     */
+    public Map<String, String> getMappings() {
+        return mappings != null ? mappings : Map.of();
+    }
+
+    /**
+     * Keeps the value of a parameter mapped.
+     *
+     * @param key   The MDC key of the parameter
+     * @param value The value of the parameter
+     */
+    public void putMapping(String key, String value) {
+        if (mappings == null) {
+            mappings = new LinkedHashMap<>();
+        }
+        mappings.put(key, value);
+    }
+
+    /**
+     * Gets the time spent reading the request entity.
+     *
+     * @return The time in nanoseconds or -1 if the request entity has not been read
+     */
+    public long getReadTime() {
+        return readTime;
+    }
+
+    /**
+     * Sets the time spent reading the request entity.
+     *
+     * @param readTime The time in nanoseconds
+     */
+    public void setReadTime(long readTime) {
+        this.readTime = readTime;
+    }
+
+    /**
+     * Gets the time elapsed between the reception of the request and the first byte written of the response entity.
+     *
+     * @return The time in nanoseconds or -1 if no byte of the response entity has been written
+     */
+    public long getFirstByteTime() {
+        return firstByteTime;
+    }
+
+    /**
+     * Marks the first byte of the response entity as written, ignored if already done.
+     */
+    public void markFirstByte() {
+        if (firstByteTime < 0) {
+            firstByteTime = nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Gets the content of the MDC of the request, kept once the request received.
+     *
+     * @return The content of the MDC or {@code null} if not kept
+     */
+    public Map<String, String> getMdc() {
+        return mdc;
+    }
+
+    /**
+     * Keeps the content of the MDC of the request, from the thread currently processing the request.
+     *
+     * @param mdc The content of the MDC
+     */
+    public void setMdc(Map<String, String> mdc) {
+        this.mdc = mdc;
+    }
+
+    /**
+     * Indicates if the MDC of the request has been restored after the request has been suspended.
+     *
+     * @return {@code true} if the MDC has been restored, {@code false} otherwise
+     */
+    public boolean isRestored() {
+        return restored;
+    }
+
+    /**
+     * Marks the MDC of the request as restored, the request having been suspended.
+     */
+    public void markRestored() {
+        restored = true;
+    }
+
+    /**
+     * Discards the fields of the request once its response logged, so that they are no longer supplied to the logs
+     * of a thread still having this context installed, such as the one having received the request when suspended.
+     */
+    public void clear() {
+        synchronized (fields) {
+            fields.clear();
+            converted = null;
+        }
+    }
+
+    /**
+     * Storage of the fields of the requests.
+     */
+    public enum Storage {
+
+        /**
+         * Fields put in the MDC, one by one, and removed from it once the response logged.
+         */
+        MDC,
+
+        /**
+         * Fields put in a single context installed for the thread processing the request (see {@link LoggedContext}),
+         * only available to the logging backends reading it (see {@link LoggedContextDataProvider} for Log4j2).
+         */
+        STRUCTURED
+
+    }
+
+}
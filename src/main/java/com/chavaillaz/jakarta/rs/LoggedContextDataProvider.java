@@ -0,0 +1,60 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.core.util.ContextDataProvider;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.apache.logging.log4j.util.StringMap;
+
+/**
+ * Provider of the fields of the request processed by the current thread to the context data of the Log4j2 events,
+ * when stored with {@link LoggedContext.Storage#STRUCTURED}. The fields are then available in the layouts
+ * as the MDC ones, for example with {@code %X{request-id}}, without being put in the MDC.
+ * <p>
+ * It is registered automatically by Log4j2 with the service loader, for all the events of the application
+ * whatever the storage configured, but does not supply anything (nor allocate anything) for the threads
+ * without any field in their context. The fields are converted once for all the events logged until they change.
+ */
+public class LoggedContextDataProvider implements ContextDataProvider {
+
+    private static final StringMap EMPTY = new SortedArrayStringMap(0);
+
+    static {
+        EMPTY.freeze();
+    }
+
+    @Override
+    public Map<String, String> supplyContextData() {
+        LoggedContext context = LoggedContext.current();
+        if (context == null || context.size() == 0) {
+            return Map.of();
+        }
+        Map<String, String> data = new HashMap<>();
+        context.forEach(data::put);
+        return data;
+    }
+
+    @Override
+    public StringMap supplyStringMap() {
+        LoggedContext context = LoggedContext.current();
+        if (context == null || context.size() == 0) {
+            return EMPTY;
+        }
+        return context.getConverted(LoggedContextDataProvider::toStringMap);
+    }
+
+    /**
+     * Converts the fields of the given context to a frozen map, shared by the events until the fields change.
+     *
+     * @param context The context of the request
+     * @return The fields of the request
+     */
+    private static StringMap toStringMap(LoggedContext context) {
+        StringMap data = new SortedArrayStringMap(context.size());
+        context.forEach(data::putValue);
+        data.freeze();
+        return data;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+import java.util.function.Supplier;
+
+/**
+ * Body whose decoding and filtering is deferred until its first use, meaning when the log is formatted
+ * by the logging backend, which may never happen if the log is filtered out, or when put in MDC.
+ * With a {@link LoggedEmitter}, this work is then also kept out of the thread processing the request.
+ * The body is computed only once, even when used by multiple logs, or can be discarded without being computed.
+ * Once computed, the body is read without any locking, the logging backends reading it character by character.
+ */
+public class LoggedDeferredBody implements CharSequence {
+
+    private Supplier<? extends CharSequence> supplier;
+    private Runnable discarder;
+    private volatile String value;
+
+    /**
+     * Creates a new deferred body.
+     *
+     * @param supplier The supplier computing the body, called at most once
+     */
+    public LoggedDeferredBody(Supplier<? extends CharSequence> supplier) {
+        this(supplier, null);
+    }
+
+    /**
+     * Creates a new deferred body that can be discarded.
+     *
+     * @param supplier  The supplier computing the body, called at most once
+     * @param discarder The action releasing the resources of the supplier when discarded or {@code null} if none
+     */
+    public LoggedDeferredBody(Supplier<? extends CharSequence> supplier, Runnable discarder) {
+        this.supplier = supplier;
+        this.discarder = discarder;
+    }
+
+    /**
+     * Indicates if the body has already been computed.
+     *
+     * @return {@code true} if the body is available, {@code false} otherwise
+     */
+    public boolean isResolved() {
+        return value != null;
+    }
+
+    /**
+     * Discards the body if not already computed, without computing it. The body is then empty.
+     */
+    public synchronized void discard() {
+        if (value == null) {
+            supplier = null;
+            value = EMPTY;
+            if (discarder != null) {
+                discarder.run();
+            }
+        }
+        discarder = null;
+    }
+
+    @Override
+    public String toString() {
+        String resolved = value;
+        return resolved != null ? resolved : resolve();
+    }
+
+    /**
+     * Computes the body if not already done by another thread.
+     *
+     * @return The body computed
+     */
+    private synchronized String resolve() {
+        if (value == null) {
+            value = String.valueOf(supplier.get());
+            supplier = null;
+            discarder = null;
+        }
+        return value;
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stage writing the logs of requests and responses (see {@link LoggedEvent}) in a dedicated thread,
+ * in order to keep the formatting of logs, the filtering of bodies and the appenders out of the request processing.
+ * <p>
+ * The events are kept in a bounded ring buffer, in which multiple threads can emit without locking,
+ * and are written in their emission order by a single consumer thread. When the ring buffer is full,
+ * the events are handled according to the {@link OverflowPolicy} of the emitter.
+ * Once the emitter closed, the remaining events are written and the new ones are written in the thread emitting them.
+ * <p>
+ * The emitters are created with their consumer thread started using {@link #of(int)}
+ * or {@link #of(int, OverflowPolicy, int)}.
+ */
+public class LoggedEmitter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggedEmitter.class);
+
+    /**
+     * Maximum time in nanoseconds the consumer waits without being notified of new events.
+     */
+    protected static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Time in nanoseconds an emitting thread waits before retrying when the ring buffer is full
+     * with the policy {@link OverflowPolicy#BLOCK}.
+     */
+    protected static final long BLOCKING_WAIT = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<LoggedEvent> events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+    private final OverflowPolicy policy;
+    private final int samplingRate;
+    private final AtomicLong samplingCounter = new AtomicLong();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile Thread consumer;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+    private volatile boolean terminated;
+
+    /**
+     * Creates a new emitter, whose consumer thread must then be started (see {@link #start()}).
+     *
+     * @param capacity     The maximum number of events waiting to be written, rounded to the next power of two
+     * @param policy       The policy applied when the ring buffer is full
+     * @param samplingRate The rate of events kept when the ring buffer is more than half full with the policy
+     *                     {@link OverflowPolicy#SAMPLE}, meaning one event out of the given number
+     */
+    protected LoggedEmitter(int capacity, OverflowPolicy policy, int samplingRate) {
+        int slotsCount = max(highestOneBit(max(capacity, 2) - 1) << 1, 2);
+        this.events = new AtomicReferenceArray<>(slotsCount);
+        this.sequences = new AtomicLongArray(slotsCount);
+        for (int i = 0; i < slotsCount; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = slotsCount - 1;
+        this.capacity = slotsCount;
+        this.policy = policy;
+        this.samplingRate = max(samplingRate, 1);
+    }
+
+    /**
+     * Creates a new emitter dropping the events when the ring buffer is full and starts its consumer thread.
+     *
+     * @param capacity The maximum number of events waiting to be written, rounded to the next power of two
+     * @return The emitter created
+     */
+    public static LoggedEmitter of(int capacity) {
+        return of(capacity, OverflowPolicy.DROP, 1);
+    }
+
+    /**
+     * Creates a new emitter and starts its consumer thread.
+     *
+     * @param capacity     The maximum number of events waiting to be written, rounded to the next power of two
+     * @param policy       The policy applied when the ring buffer is full
+     * @param samplingRate The rate of events kept when the ring buffer is more than half full with the policy
+     *                     {@link OverflowPolicy#SAMPLE}, meaning one event out of the given number
+     * @return The emitter created
+     */
+    public static LoggedEmitter of(int capacity, OverflowPolicy policy, int samplingRate) {
+        LoggedEmitter emitter = new LoggedEmitter(capacity, policy, samplingRate);
+        emitter.start();
+        return emitter;
+    }
+
+    /**
+     * Starts the consumer thread writing the events, once this emitter fully constructed.
+     *
+     * @throws IllegalStateException If the consumer thread has already been started
+     */
+    protected synchronized void start() {
+        if (consumer != null) {
+            throw new IllegalStateException("Emitter already started");
+        }
+        consumer = Thread.ofPlatform()
+                .name("logged-emitter")
+                .daemon()
+                .start(this::consume);
+    }
+
+    /**
+     * Emits the given event to be written by the consumer thread, applying the overflow policy if needed.
+     *
+     * @param event The event to be written
+     * @return {@code true} if the event has been or will be written, {@code false} if it has been dropped
+     */
+    public boolean emit(LoggedEvent event) {
+        if (closed) {
+            write(event);
+            return true;
+        }
+        if (policy == OverflowPolicy.SAMPLE && size() >= capacity / 2
+                && samplingCounter.getAndIncrement() % samplingRate != 0) {
+            dropped.increment();
+            return false;
+        }
+        while (!offer(event)) {
+            if (policy != OverflowPolicy.BLOCK) {
+                dropped.increment();
+                return false;
+            }
+            if (closed) {
+                write(event);
+                return true;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(BLOCKING_WAIT);
+        }
+        emitted.increment();
+        if (terminated) {
+            // Closed concurrently, the consumer and the closure may no longer write the events remaining
+            drain();
+        } else if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given event to the ring buffer if a slot is available.
+     *
+     * @param event The event to be added
+     * @return {@code true} if the event has been added, {@code false} if the ring buffer is full
+     */
+    protected boolean offer(LoggedEvent event) {
+        long position = producerPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    events.lazySet(index, event);
+                    // Publishes the event to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the next event from the ring buffer.
+     * Note that it must only be called by the consumer thread or once it is terminated (see {@link #drain()}).
+     *
+     * @return The next event or {@code null} if the ring buffer is empty
+     */
+    protected LoggedEvent poll() {
+        long position = consumerPosition.get();
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        LoggedEvent event = events.get(index);
+        events.lazySet(index, null);
+        // Releases the slot to the producers for the next round
+        sequences.set(index, position + capacity);
+        consumerPosition.lazySet(position + 1);
+        return event;
+    }
+
+    /**
+     * Writes the events of the ring buffer until the emitter is closed and no event remains.
+     */
+    protected void consume() {
+        while (true) {
+            LoggedEvent event = poll();
+            if (event != null) {
+                write(event);
+            } else if (closed) {
+                return;
+            } else {
+                waiting = true;
+                if (size() == 0 && !closed) {
+                    LockSupport.parkNanos(this, IDLE_WAIT);
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    /**
+     * Writes the events remaining in the ring buffer once the consumer thread terminated.
+     * Note that the threads emitting and closing may call it concurrently, hence its synchronization.
+     */
+    protected synchronized void drain() {
+        LoggedEvent event;
+        while ((event = poll()) != null) {
+            write(event);
+        }
+    }
+
+    /**
+     * Writes the given event, without propagating any failure to avoid stopping the consumer.
+     *
+     * @param event The event to be written
+     */
+    protected void write(LoggedEvent event) {
+        try {
+            event.write();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Unable to write logged event", e);
+        }
+    }
+
+    /**
+     * Gets the approximate number of events waiting to be written.
+     *
+     * @return The number of events in the ring buffer
+     */
+    public int size() {
+        return (int) max(producerPosition.get() - consumerPosition.get(), 0);
+    }
+
+    /**
+     * Gets the number of events added to the ring buffer.
+     *
+     * @return The number of events emitted
+     */
+    public long getEmitted() {
+        return emitted.sum();
+    }
+
+    /**
+     * Gets the number of events dropped, because the ring buffer was full or not kept by sampling.
+     *
+     * @return The number of events dropped
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets the number of events whose writing failed.
+     *
+     * @return The number of events failed
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Closes the emitter and waits for the remaining events to be written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // Writes the events emitted concurrently to the closure, the emitting threads writing the next ones
+        terminated = true;
+        drain();
+    }
+
+    /**
+     * Policy applied when emitting an event while the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * The event is dropped.
+         */
+        DROP,
+
+        /**
+         * Only a sample of the events is kept once the ring buffer is more than half full,
+         * and the event is dropped when it is full.
+         */
+        SAMPLE,
+
+        /**
+         * The emitting thread waits until a slot is available.
+         */
+        BLOCK
+
+    }
+
+}
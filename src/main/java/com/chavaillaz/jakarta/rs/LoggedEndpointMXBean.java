@@ -0,0 +1,107 @@
+package com.chavaillaz.jakarta.rs;
+
+/**
+ * Management interface exposing the metrics of a resource method through JMX (see {@link LoggedMetrics}).
+ * The latencies are given in microseconds.
+ */
+public interface LoggedEndpointMXBean {
+
+    /**
+     * Gets the number of requests processed.
+     *
+     * @return The number of requests
+     */
+    long getCount();
+
+    /**
+     * Gets the mean latency of the requests.
+     *
+     * @return The mean latency in microseconds
+     */
+    double getLatencyMean();
+
+    /**
+     * Gets the median latency of the requests.
+     *
+     * @return The latency in microseconds
+     */
+    long getLatencyP50();
+
+    /**
+     * Gets the 90th percentile of the latency of the requests.
+     *
+     * @return The latency in microseconds
+     */
+    long getLatencyP90();
+
+    /**
+     * Gets the 99th percentile of the latency of the requests.
+     *
+     * @return The latency in microseconds
+     */
+    long getLatencyP99();
+
+    /**
+     * Gets the 99.9th percentile of the latency of the requests.
+     *
+     * @return The latency in microseconds
+     */
+    long getLatencyP999();
+
+    /**
+     * Gets the highest latency of the requests.
+     *
+     * @return The latency in microseconds
+     */
+    long getLatencyMax();
+
+    /**
+     * Gets the number of responses with an informational status (1xx).
+     *
+     * @return The number of responses
+     */
+    long getStatus1xx();
+
+    /**
+     * Gets the number of responses with a successful status (2xx).
+     *
+     * @return The number of responses
+     */
+    long getStatus2xx();
+
+    /**
+     * Gets the number of responses with a redirection status (3xx).
+     *
+     * @return The number of responses
+     */
+    long getStatus3xx();
+
+    /**
+     * Gets the number of responses with a client error status (4xx).
+     *
+     * @return The number of responses
+     */
+    long getStatus4xx();
+
+    /**
+     * Gets the number of responses with a server error status (5xx).
+     *
+     * @return The number of responses
+     */
+    long getStatus5xx();
+
+    /**
+     * Gets the total size of the request bodies captured.
+     *
+     * @return The size in bytes
+     */
+    long getRequestBytes();
+
+    /**
+     * Gets the total size of the response bodies captured.
+     *
+     * @return The size in bytes
+     */
+    long getResponseBytes();
+
+}
@@ -0,0 +1,39 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+/**
+ * Event of a request or a response to be logged outside the thread processing it (see {@link LoggedEmitter}).
+ * It holds a snapshot of the {@link MDC} taken when the event was emitted, the bodies to be added to it once decoded
+ * (see {@link LoggedDeferredBody}) and the action writing the log, executed with this {@link MDC} restored.
+ * <p>
+ * Note that the maps given are not copied and must not be modified once the event created.
+ *
+ * @param context The snapshot of the {@link MDC} when the event was emitted
+ * @param bodies  The bodies to be added to the {@link MDC}, by key
+ * @param writer  The action writing the log
+ */
+public record LoggedEvent(Map<String, String> context, Map<String, CharSequence> bodies, Runnable writer) {
+
+    /**
+     * Writes the log of this event in the current thread, with the {@link MDC} of the event
+     * instead of the one of the current thread during the writing.
+     */
+    public void write() {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        try {
+            MDC.setContextMap(context != null ? context : Map.of());
+            bodies.forEach((key, body) -> MDC.put(key, body.toString()));
+            writer.run();
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+}
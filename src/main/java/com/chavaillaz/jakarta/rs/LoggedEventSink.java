@@ -0,0 +1,20 @@
+package com.chavaillaz.jakarta.rs;
+
+/**
+ * Destination of the requests processed by {@link LoggedFilter}, receiving a single typed event for each of them
+ * once its response sent, instead of the request and response logs formatted by the filter.
+ * <p>
+ * It is called in the thread processing the response, or in the thread of the {@link LoggedEmitter} if any,
+ * and must therefore be thread-safe. See {@link JsonEventSink} to write them as JSON lines.
+ */
+@FunctionalInterface
+public interface LoggedEventSink {
+
+    /**
+     * Receives the given request processed and its response.
+     *
+     * @param exchange The request and its response
+     */
+    void accept(LoggedExchange exchange);
+
+}
@@ -0,0 +1,40 @@
+package com.chavaillaz.jakarta.rs;
+
+import java.util.Map;
+
+/**
+ * Request processed by {@link LoggedFilter} and its response, given to a {@link LoggedEventSink} once the response
+ * sent, with typed values instead of the formatted messages and the MDC fields written otherwise.
+ * <p>
+ * The bodies are kept as given by the filter, meaning that they may only be decoded and filtered when read
+ * (see {@link LoggedDeferredBody}), possibly in the thread of the {@link LoggedEmitter}.
+ *
+ * @param requestId         The identifier of the request (see {@link RequestIdGenerator})
+ * @param method            The method of the request
+ * @param uri               The URI path of the request relative to the base URI
+ * @param parameters        The query parameters of the request, sorted by name, or {@code null} if unknown
+ * @param resourceClass     The simple name of the resource class matched by the request or {@code null} if none
+ * @param resourceMethod    The name of the resource method matched by the request or {@code null} if none
+ * @param status            The status of the response
+ * @param duration          The time elapsed between the reception of the request and its response in nanoseconds
+ * @param readDuration      The time spent reading the request entity in nanoseconds or -1 if not read
+ * @param firstByteDuration The time elapsed until the first byte of the response entity in nanoseconds or -1 if none
+ * @param mappings          The values of the parameters mapped (see {@link LoggedMapping}), by MDC key
+ * @param requestBody       The request body or {@code null} if not captured
+ * @param responseBody      The response body or {@code null} if not captured
+ */
+public record LoggedExchange(String requestId,
+                             String method,
+                             String uri,
+                             String parameters,
+                             String resourceClass,
+                             String resourceMethod,
+                             int status,
+                             long duration,
+                             long readDuration,
+                             long firstByteDuration,
+                             Map<String, String> mappings,
+                             CharSequence requestBody,
+                             CharSequence responseBody) {
+
+}
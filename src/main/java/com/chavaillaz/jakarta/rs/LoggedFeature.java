@@ -0,0 +1,141 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedUtils.getAnnotation;
+import static jakarta.ws.rs.RuntimeType.SERVER;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import jakarta.ws.rs.ConstrainedTo;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+
+/**
+ * Feature registering at deployment time a {@link LoggedFilter} for each resource method using {@link Logged}
+ * (on the method, its interfaces or its class), bound to the logging plan of the method (see {@link LoggedPlan}).
+ * All the configuration is then resolved during the deployment instead of the processing of requests,
+ * and any body filter that cannot be instantiated makes the deployment fail.
+ * <p>
+ * Note that it replaces the registration of {@link LoggedFilter} as provider, which is not meant to be registered
+ * in addition. If it is nonetheless, each request is only logged by the first filter applied to it.
+ */
+@ConstrainedTo(SERVER)
+public class LoggedFeature implements DynamicFeature {
+
+    /**
+     * Cache of instances for request and response body filters, shared between resource methods.
+     */
+    protected final Map<Class<?>, LoggedBodyFilter> filtersCache = new ConcurrentHashMap<>();
+
+    /**
+     * Factory creating the filters to be registered, configured before being bound to the logging plan
+     * of their resource method (see {@link #createFilter(LoggedPlan)}).
+     */
+    protected final Supplier<? extends LoggedFilter> filterFactory;
+
+    /**
+     * Creates a new feature whose filters write the logs in the threads processing the requests.
+     */
+    public LoggedFeature() {
+        this((LoggedEmitter) null);
+    }
+
+    /**
+     * Creates a new feature whose filters write the logs using the given emitter.
+     * Note that the emitter must be closed by the application when stopping.
+     *
+     * @param emitter The emitter to be used or {@code null} to write the logs in the threads processing the requests
+     */
+    public LoggedFeature(LoggedEmitter emitter) {
+        this(emitter, null);
+    }
+
+    /**
+     * Creates a new feature whose filters write the logs using the given emitter and record the requests processed
+     * in the given metrics. Note that the emitter and the metrics must be closed by the application when stopping.
+     *
+     * @param emitter The emitter to be used or {@code null} to write the logs in the threads processing the requests
+     * @param metrics The metrics to be used or {@code null} to not record them
+     */
+    public LoggedFeature(LoggedEmitter emitter, LoggedMetrics metrics) {
+        this(() -> {
+            LoggedFilter filter = new LoggedFilter();
+            filter.setEmitter(emitter);
+            filter.setMetrics(metrics);
+            return filter;
+        });
+    }
+
+    /**
+     * Creates a new feature whose filters are created by the given factory, for example to use a subclass
+     * of {@link LoggedFilter} or to configure the event sink, the context storage, the precision of the durations
+     * or the request identifier generator of all the filters registered. The factory is called once
+     * for each resource method logged and must return a new instance each time.
+     *
+     * @param filterFactory The factory creating the filters to be registered
+     */
+    public LoggedFeature(Supplier<? extends LoggedFilter> filterFactory) {
+        this.filterFactory = filterFactory;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        if (isLogged(resourceInfo)) {
+            context.register(createFilter(createPlan(resourceInfo)));
+        }
+    }
+
+    /**
+     * Indicates if the given resource method must be logged, meaning if {@link Logged} is present on the method,
+     * its interfaces or its class, the same way as when binding {@link LoggedFilter} registered as provider.
+     *
+     * @param resourceInfo The instance to access resource class and method
+     * @return {@code true} if the resource method must be logged, {@code false} otherwise
+     */
+    protected boolean isLogged(ResourceInfo resourceInfo) {
+        return !getAnnotation(resourceInfo, Logged.class).isEmpty()
+                || resourceInfo.getResourceClass().isAnnotationPresent(Logged.class);
+    }
+
+    /**
+     * Creates the logging plan of the given resource method.
+     *
+     * @param resourceInfo The instance to access resource class and method
+     * @return The logging plan created
+     */
+    protected LoggedPlan createPlan(ResourceInfo resourceInfo) {
+        return LoggedPlan.of(resourceInfo, this::getBodyFiltersInstance);
+    }
+
+    /**
+     * Creates the filter to be registered for a resource method.
+     *
+     * @param plan The logging plan of the resource method
+     * @return The filter bound to the given logging plan
+     */
+    protected LoggedFilter createFilter(LoggedPlan plan) {
+        LoggedFilter filter = filterFactory.get();
+        filter.bindPlan(plan);
+        return filter;
+    }
+
+    /**
+     * Gets the instance of the given body filter type, creating it if not already done (caching).
+     *
+     * @param type The body filter class to be instantiated
+     * @return The instance of the body filter
+     * @throws IllegalStateException If the body filter cannot be instantiated
+     */
+    protected LoggedBodyFilter getBodyFiltersInstance(Class<? extends LoggedBodyFilter> type) {
+        return filtersCache.computeIfAbsent(type, ignored -> {
+            try {
+                return type.getConstructor().newInstance();
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to instantiate body filter " + type, e);
+            }
+        });
+    }
+
+}
@@ -18,7 +18,9 @@ public enum LoggedField {
     RESPONSE_STATUS("response-status"),
     RESOURCE_CLASS("resource-class"),
     RESOURCE_METHOD("resource-method"),
-    DURATION("duration");
+    DURATION("duration"),
+    READ_DURATION("read-duration"),
+    FIRST_BYTE_DURATION("first-byte-duration");
 
     private final String defaultField;
 
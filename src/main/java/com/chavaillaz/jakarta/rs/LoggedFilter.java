@@ -1,8 +1,8 @@
 package com.chavaillaz.jakarta.rs;
 
-import static com.chavaillaz.jakarta.rs.LoggedBody.Target.REQUEST;
-import static com.chavaillaz.jakarta.rs.LoggedBody.Target.RESPONSE;
 import static com.chavaillaz.jakarta.rs.LoggedField.DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.FIRST_BYTE_DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.READ_DURATION;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_BODY;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_ID;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_METHOD;
@@ -13,40 +13,42 @@ import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_METHOD;
 import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_BODY;
 import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_STATUS;
 import static com.chavaillaz.jakarta.rs.LoggedField.getDefaultFields;
-import static com.chavaillaz.jakarta.rs.LoggedUtils.getAnnotation;
-import static com.chavaillaz.jakarta.rs.LoggedUtils.getMergedMappings;
 import static jakarta.ws.rs.RuntimeType.SERVER;
-import static java.lang.String.join;
+import static jakarta.ws.rs.core.MediaType.CHARSET_PARAMETER;
 import static java.lang.String.valueOf;
 import static java.lang.System.nanoTime;
-import static java.util.Comparator.comparing;
-import static java.util.Map.Entry.comparingByKey;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNullElse;
-import static java.util.Optional.of;
-import static java.util.UUID.randomUUID;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toSet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.LF;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
 
 import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
-import com.chavaillaz.jakarta.rs.LoggedBody.Target;
-import com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType;
+import com.chavaillaz.jakarta.rs.LoggedContext.Storage;
+import com.chavaillaz.jakarta.rs.LoggedMetrics.Phase;
 import jakarta.ws.rs.ConstrainedTo;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ContainerRequestContext;
@@ -55,13 +57,15 @@ import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
 import jakarta.ws.rs.ext.Provider;
 import jakarta.ws.rs.ext.ReaderInterceptor;
 import jakarta.ws.rs.ext.ReaderInterceptorContext;
 import jakarta.ws.rs.ext.WriterInterceptor;
 import jakarta.ws.rs.ext.WriterInterceptorContext;
-import org.apache.commons.io.input.TeeInputStream;
-import org.apache.commons.io.output.TeeOutputStream;
+import org.apache.commons.lang3.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -69,7 +73,7 @@ import org.slf4j.MDC;
 /**
  * Provider adding the following request information to {@link MDC}:
  * <ul>
- *     <li>Request identifier (see {@link java.util.UUID})</li>
+ *     <li>Request identifier (see {@link RequestIdGenerator})</li>
  *     <li>Request method (see {@link jakarta.ws.rs.HttpMethod})</li>
  *     <li>Request URI path relative to the base URI</li>
  *     <li>Resource class matched by the current request</li>
@@ -77,12 +81,16 @@ import org.slf4j.MDC;
  * </ul>
  * Once the response computed, the request will be logged using the format
  * <code>Processed [method] [URI] with status [status] in [duration]ms</code>
+ * (the precision of the durations being configurable, see {@link #setDurationUnit(TimeUnit)})
  * with the following {@link MDC}:
  * <ul>
  *     <li>Response status (see {@link jakarta.ws.rs.core.Response.Status})</li>
  *     <li>Response duration in milliseconds</li>
+ *     <li>Time spent reading the request entity and time to the first byte of the response entity (if any)</li>
  *     <li>Request and response body (if activated in annotation)</li>
  * </ul>
+ * These fields can also be kept in a single context instead of {@link MDC} (see {@link #setContextStorage(Storage)}),
+ * and the logs replaced by a single typed event for each request (see {@link #setEventSink(LoggedEventSink)}).
  * This provider can be activated using the annotation {@link Logged} on resources.
  */
 @Logged
@@ -93,15 +101,59 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
     protected static final Logger log = LoggerFactory.getLogger(LoggedFilter.class);
 
     /**
-     * Name of the property stored in container context to compute the duration time.
+     * Name of the property stored in container context to keep the state of the request (see {@link LoggedContext}),
+     * in particular to compute the duration time.
      */
-    protected static final String REQUEST_TIME_PROPERTY = "request-time";
+    protected static final String REQUEST_CONTEXT_PROPERTY = "request-context";
+
+    /**
+     * Name of the property stored in container context to keep the filter logging the request, the other instances
+     * applied to the same request being skipped (for example when registered both as provider and by {@link LoggedFeature}).
+     */
+    protected static final String REQUEST_FILTER_PROPERTY = "request-filter";
 
     /**
      * Name of the property stored in container context to retrieve the request body after its processing.
      */
     protected static final String REQUEST_BODY_PROPERTY = "request-body";
 
+    /**
+     * Name of the property stored in container context to retrieve the response body after its processing.
+     */
+    protected static final String RESPONSE_BODY_PROPERTY = "response-body";
+
+    /**
+     * Name of the property stored in container context when the request is not sampled (see {@link LoggedSampler}),
+     * set to {@code false} when the request must not be logged and to {@code true} once its logging is forced.
+     */
+    protected static final String SAMPLED_PROPERTY = "request-sampled";
+
+    /**
+     * Name of the property stored in container context when the response body must not be captured,
+     * the request being neither failed nor slow while its body is only logged in that case (see {@link LoggedBody#tail()}).
+     */
+    protected static final String RESPONSE_DISCARDED_PROPERTY = "response-discarded";
+
+    /**
+     * Text appended to bodies truncated because of their size limit.
+     */
+    protected static final String TRUNCATION_MARKER = "... [truncated, ";
+
+    /**
+     * Text appended to query parameters truncated because of their length limit.
+     */
+    protected static final String PARAMETERS_TRUNCATION_MARKER = "...";
+
+    /**
+     * Algorithm of the hash written in the summary of the bodies not captured because of their media type.
+     */
+    protected static final String SUMMARY_ALGORITHM = "SHA-256";
+
+    /**
+     * Name of the header from which the request identifier is taken when present.
+     */
+    protected static final String REQUEST_ID_HEADER = "X-Request-ID";
+
     /**
      * Names of MDC fields to be used for all logged fields.
      * Allows changes from children classes.
@@ -109,9 +161,65 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
     protected final Map<String, String> mdcFields = getDefaultFields();
 
     /**
-     * Cache of instances for request and response body filters.
+     * Cache of instances for request and response body filters, shared between the logging plans.
+     * Filled when the logging plans are created, possibly concurrently by multiple requests.
+     */
+    protected final Map<Class<?>, LoggedBodyFilter> filtersCache = new ConcurrentHashMap<>();
+
+    /**
+     * Cache of logging plans for each resource method, by resource class.
+     */
+    protected final Map<Class<?>, Map<Method, LoggedPlan>> plansCache = new ConcurrentHashMap<>();
+
+    /**
+     * Pool of buffers used to capture request and response bodies.
+     */
+    protected LoggedBufferPool bufferPool = LoggedBufferPool.DEFAULT;
+
+    /**
+     * Logging plan to which this instance is bound or {@code null} to resolve it for each resource method.
+     */
+    protected LoggedPlan boundPlan;
+
+    /**
+     * Stage writing the logs in a dedicated thread or {@code null} to write them in the thread processing the request.
+     */
+    protected LoggedEmitter emitter;
+
+    /**
+     * Sink receiving a single event for each request instead of its logs or {@code null} to write the logs.
+     */
+    protected LoggedEventSink eventSink;
+
+    /**
+     * Metrics in which the requests processed are recorded or {@code null} to not record them.
+     */
+    protected LoggedMetrics metrics;
+
+    /**
+     * Precision of the durations written in MDC and logs.
+     */
+    protected TimeUnit durationUnit = MILLISECONDS;
+
+    /**
+     * Storage of the fields of the requests, in MDC by default.
+     */
+    protected Storage contextStorage = Storage.MDC;
+
+    /**
+     * Format of the query parameters of the requests, decoded and sorted by default.
+     */
+    protected ParametersFormat parametersFormat = ParametersFormat.SORTED;
+
+    /**
+     * Maximum length of the query parameters of the requests or -1 if no limit is applied.
      */
-    protected final Map<Class<?>, LoggedBodyFilter> filtersCache = new HashMap<>();
+    protected int parametersLimit = -1;
+
+    /**
+     * Generator of the identifiers of requests received without identifier.
+     */
+    protected RequestIdGenerator requestIdGenerator = RequestIdGenerator.Standard.RANDOM_UUID;
 
     /**
      * Provides access to the resource class and method matched by the current request.
@@ -125,6 +233,130 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
     @Context
     protected ContainerRequestContext requestContext;
 
+    /**
+     * Binds this instance to the given logging plan, meant to be registered for a single resource method
+     * (see {@link LoggedFeature}), avoiding any lookup of the resource method matched by requests.
+     * Note that it must be called before the registration of this instance.
+     *
+     * @param plan The logging plan of the resource method
+     */
+    public void bindPlan(LoggedPlan plan) {
+        this.boundPlan = plan;
+    }
+
+    /**
+     * Writes the logs using the given emitter, which then decodes and filters the bodies in its own thread,
+     * instead of the thread processing the request. Note that the emitter is not closed by this instance.
+     *
+     * @param emitter The emitter to be used or {@code null} to write the logs in the thread processing the request
+     */
+    public void setEmitter(LoggedEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    /**
+     * Gives a single typed event to the given sink for each request, once its response sent, instead of writing
+     * the logs of the request and its response. The bodies captured are then given in the event, whatever their
+     * logging types, and are not added to MDC. The other fields are still available in MDC (or in the storage defined)
+     * during the processing of the request. With an emitter, the sink is called in the thread of the emitter.
+     *
+     * @param eventSink The sink to be used (see {@link JsonEventSink}) or {@code null} to write the logs
+     */
+    public void setEventSink(LoggedEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * Gets the names of the MDC fields used, by {@link LoggedField} name, including the ones renamed
+     * by children classes, for example to write the events with the same names (see {@link JsonEventSink}).
+     *
+     * @return The names of the fields by {@link LoggedField} name
+     */
+    public Map<String, String> getMdcFields() {
+        return Collections.unmodifiableMap(mdcFields);
+    }
+
+    /**
+     * Records the latency, the status and the size of the bodies captured of the requests processed
+     * in the given metrics, by resource method.
+     *
+     * @param metrics The metrics to be used or {@code null} to not record them
+     */
+    public void setMetrics(LoggedMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the precision of the durations written in MDC and logs, for example {@link TimeUnit#MICROSECONDS}
+     * for endpoints responding in less than a millisecond. Note that the thresholds are still in milliseconds.
+     *
+     * @param durationUnit The unit of the durations (milliseconds by default)
+     */
+    public void setDurationUnit(TimeUnit durationUnit) {
+        this.durationUnit = durationUnit;
+    }
+
+    /**
+     * Sets the storage of the fields of the requests. With {@link Storage#STRUCTURED}, the fields are kept
+     * in a single context installed for the thread processing the request, instead of being put one by one in MDC,
+     * and are only available to the logging backends reading it (see {@link LoggedContextDataProvider}).
+     *
+     * @param contextStorage The storage of the fields
+     * @throws IllegalStateException If the fields cannot be read by the logging backend used with the given storage
+     */
+    public void setContextStorage(Storage contextStorage) {
+        if (contextStorage == Storage.STRUCTURED && !isStructuredSupported()) {
+            throw new IllegalStateException("Structured context storage requires Log4j2 as logging backend, "
+                    + "the fields of the requests would be missing from the logs of " + LoggerFactory.getILoggerFactory());
+        }
+        this.contextStorage = contextStorage;
+    }
+
+    /**
+     * Indicates if the logging backend supports the fields kept in the context of the requests,
+     * meaning if it is Log4j2, which reads them with {@link LoggedContextDataProvider}.
+     *
+     * @return {@code true} if the structured context storage is supported, {@code false} otherwise
+     */
+    protected boolean isStructuredSupported() {
+        try {
+            Class.forName("org.apache.logging.log4j.core.util.ContextDataProvider", false, getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        return LoggerFactory.getILoggerFactory().getClass().getName().startsWith("org.apache.logging.");
+    }
+
+    /**
+     * Sets the format of the query parameters of the requests. With {@link ParametersFormat#SORTED}, the parameters
+     * are only decoded and sorted when read with the storage {@link Storage#STRUCTURED}, which may never happen,
+     * but always with the storage {@link Storage#MDC} only accepting strings, while the raw query string with {@link ParametersFormat#RAW} is taken as is, without any decoding nor sorting.
+     *
+     * @param parametersFormat The format of the query parameters
+     */
+    public void setParametersFormat(ParametersFormat parametersFormat) {
+        this.parametersFormat = parametersFormat;
+    }
+
+    /**
+     * Sets the maximum length of the query parameters of the requests, which are truncated and followed by
+     * {@link #PARAMETERS_TRUNCATION_MARKER} when longer.
+     *
+     * @param parametersLimit The maximum length in characters or -1 if no limit is applied (default)
+     */
+    public void setParametersLimit(int parametersLimit) {
+        this.parametersLimit = parametersLimit;
+    }
+
+    /**
+     * Sets the generator of the identifiers of requests received without identifier.
+     *
+     * @param requestIdGenerator The generator to be used (see {@link RequestIdGenerator.Standard})
+     */
+    public void setRequestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
     /**
      * Puts a diagnostic context value identified by the given field into the current thread's context map.
      *
@@ -133,334 +365,988 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
      */
     protected void putMdc(LoggedField field, String value) {
         if (value != null) {
-            MDC.put(mdcFields.get(field.name()), value);
-        }
-    }
-
-    /**
-     * Maps the given parameters (path, query or headers) to MDC entries using the given mapping.
-     *
-     * @param parameters The parameters to be mapped
-     * @param mapping    The mapping to be applied
-     * @param exclusion  The parameters name to be excluded from mapping (already mapped or explicitly excluded)
-     */
-    protected void putMdcFromParameters(Map<String, List<String>> parameters, LoggedMapping mapping, Set<String> exclusion) {
-        Set<String> paramNames = Set.of(mapping.paramNames());
-        if (mapping.auto()) {
-            parameters.entrySet().stream()
-                    .filter(entry -> !exclusion.contains(entry.getKey()))
-                    .filter(entry -> entry.getValue() != null && !entry.getValue().isEmpty())
-                    .forEach(entry -> MDC.put(mapping.mdcPrefix() + entry.getKey(), entry.getValue().getFirst()));
-        } else if (paramNames.stream().noneMatch(exclusion::contains)) {
-            // Avoid a field to be mapped multiple times
-            exclusion.addAll(paramNames);
-            // MDC key can be blank in case of exclusion
-            if (isNotBlank(mapping.mdcKey())) {
-                paramNames.stream()
-                        .map(parameters::get)
-                        .filter(Objects::nonNull)
-                        .filter(list -> !list.isEmpty())
-                        .map(List::getFirst)
-                        .findFirst()
-                        .ifPresent(value -> MDC.put(mapping.mdcPrefix() + mapping.mdcKey(), value));
+            putContext(mdcFields.get(field.name()), value);
+        }
+    }
+
+    /**
+     * Puts a diagnostic context value into the storage of the request fields (see {@link #setContextStorage(Storage)}),
+     * being either the current thread's context map or the context of the request installed for the current thread.
+     * In the latter case, the value is only resolved when read.
+     *
+     * @param key   The key of the value
+     * @param value The value to be associated with the given key
+     */
+    protected void putContext(String key, CharSequence value) {
+        if (contextStorage == Storage.STRUCTURED) {
+            LoggedContext context = LoggedContext.current();
+            if (context != null) {
+                context.put(key, value);
+            }
+        } else {
+            MDC.put(key, value.toString());
+            LoggedContext context = LoggedContext.current();
+            if (context != null) {
+                context.putMdcKey(key);
+            }
+        }
+    }
+
+    /**
+     * Puts the fields added by children classes, once the fields of the request received put and before they are kept
+     * to be restored when the response is processed by another thread. The fields must be put with
+     * {@link #putContext(String, CharSequence)} to follow the storage defined and to be removed once the response logged.
+     * Does nothing by default.
+     *
+     * @param requestContext The context of the request received
+     */
+    protected void putCustomFields(ContainerRequestContext requestContext) {
+        // Nothing to add by default
+    }
+
+    /**
+     * Maps the given parameters (path, query or headers) to MDC entries using the given compiled mappings,
+     * looking up the parameters of the manual mappings and then going once through the parameters for automatic ones.
+     *
+     * @param loggedContext The state of the request, keeping the values mapped when given to an event sink
+     * @param parameters    The parameters to be mapped
+     * @param mappings      The mappings of the type of the parameters
+     */
+    protected void putMdcFromParameters(LoggedContext loggedContext, Map<String, List<String>> parameters,
+                                        LoggedPlan.Mappings mappings) {
+        String[] keys = mappings.keys();
+        String[][] paramNames = mappings.paramNames();
+        for (int i = 0; i < keys.length; i++) {
+            for (String paramName : paramNames[i]) {
+                List<String> values = parameters.get(paramName);
+                if (values != null && !values.isEmpty()) {
+                    putMapping(loggedContext, keys[i], values.getFirst());
+                    break;
+                }
             }
         }
+
+        if (mappings.isAuto()) {
+            for (Map.Entry<String, List<String>> entry : parameters.entrySet()) {
+                List<String> values = entry.getValue();
+                if (values != null && !values.isEmpty() && !mappings.exclusions().contains(entry.getKey())) {
+                    for (String prefix : mappings.autoPrefixes()) {
+                        putMapping(loggedContext, prefix + entry.getKey(), values.getFirst());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts the value of a parameter mapped into the storage of the request fields,
+     * and keeps it in the state of the request when given to an event sink (see {@link LoggedExchange#mappings()}).
+     *
+     * @param loggedContext The state of the request
+     * @param key           The MDC key of the parameter
+     * @param value         The value of the parameter
+     */
+    protected void putMapping(LoggedContext loggedContext, String key, String value) {
+        putContext(key, value);
+        if (eventSink != null) {
+            loggedContext.putMapping(key, value);
+        }
     }
 
     /**
      * Gets a diagnostic context value identified by the given field from the current thread's context map.
+     * When the fields are kept in the context of the request, the value is read from the MDC if not in this context,
+     * for example in the thread of the emitter, which writes the logs with the MDC restored from the context.
      *
      * @param field The field for which get the value
      * @return The value associated with the given field
      */
     protected String getMdc(LoggedField field) {
-        return MDC.get(mdcFields.get(field.name()));
+        String key = mdcFields.get(field.name());
+        if (contextStorage == Storage.STRUCTURED) {
+            LoggedContext context = LoggedContext.current();
+            String value = context != null ? context.get(key) : null;
+            if (value != null) {
+                return value;
+            }
+        }
+        return MDC.get(key);
     }
 
     /**
      * Gets the request identifier that will be stored in MDC for the complete request processing.
-     * Returns the header value of {@code X-Request-ID} or a random UUID when not present.
+     * Returns the header value of {@code X-Request-ID} or a new identifier when not present
+     * (see {@link #setRequestIdGenerator(RequestIdGenerator)}).
      *
      * @param requestContext The context of the request received
      * @return The request identifier
      */
     protected String getRequestId(ContainerRequestContext requestContext) {
-        return of(requestContext)
-                .map(ContainerRequestContext::getHeaders)
-                .map(headers -> headers.getFirst("X-Request-ID"))
-                .orElse(randomUUID().toString());
+        String requestId = requestContext.getHeaders().getFirst(REQUEST_ID_HEADER);
+        return requestId != null ? requestId : requestIdGenerator.generate();
+    }
+
+    /**
+     * Gets the query parameters of the request in the format defined (see {@link #setParametersFormat(ParametersFormat)}).
+     * When decoded and sorted, they are only computed when the log is formatted with the storage {@link Storage#STRUCTURED},
+     * while the storage {@link Storage#MDC} needs them right away as a string, which is then computed directly.
+     *
+     * @param uriInfo The URI information of the request received
+     * @return The query parameters of the request, truncated to the length limit defined
+     */
+    protected CharSequence getParameters(UriInfo uriInfo) {
+        return switch (parametersFormat) {
+            case RAW -> truncateParameters(new StringBuilder(requireNonNullElse(uriInfo.getRequestUri().getRawQuery(), EMPTY)));
+            case SORTED -> contextStorage == Storage.STRUCTURED
+                    ? new LoggedDeferredBody(() -> formatParameters(uriInfo.getQueryParameters()))
+                    : formatParameters(uriInfo.getQueryParameters());
+        };
+    }
+
+    /**
+     * Formats the given query parameters sorted by name, as {@code name=value1,value2&other=value},
+     * without formatting the ones exceeding the length limit defined.
+     *
+     * @param parameters The decoded query parameters of the request
+     * @return The query parameters formatted
+     */
+    protected CharSequence formatParameters(Map<String, List<String>> parameters) {
+        String[] names = parameters.keySet().toArray(String[]::new);
+        Arrays.sort(names);
+        StringBuilder builder = new StringBuilder();
+        for (String name : names) {
+            if (parametersLimit >= 0 && builder.length() > parametersLimit) {
+                break;
+            }
+            if (!builder.isEmpty()) {
+                builder.append('&');
+            }
+            builder.append(name).append('=');
+            List<String> values = parameters.get(name);
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(values.get(i));
+            }
+        }
+        return truncateParameters(builder);
+    }
+
+    /**
+     * Truncates the given query parameters to the length limit defined, if any.
+     *
+     * @param parameters The query parameters of the request
+     * @return The query parameters truncated and followed by {@link #PARAMETERS_TRUNCATION_MARKER} if needed
+     */
+    protected CharSequence truncateParameters(StringBuilder parameters) {
+        if (parametersLimit >= 0 && parameters.length() > parametersLimit) {
+            parameters.setLength(parametersLimit);
+            parameters.append(PARAMETERS_TRUNCATION_MARKER);
+        }
+        return parameters;
+    }
+
+    /**
+     * Indicates if the request is logged by another instance, meaning if another filter has been applied first
+     * to the request, this instance being then skipped to avoid logging the request several times.
+     *
+     * @param filter The filter kept in the property {@link #REQUEST_FILTER_PROPERTY} of the request
+     * @return {@code true} if the request is logged by another instance, {@code false} otherwise
+     */
+    protected boolean isLoggedByOther(Object filter) {
+        return filter != null && filter != this;
+    }
+
+    /**
+     * Gets the logging plan of the resource method matched by the current request.
+     * The plan is resolved only once for each resource method and then cached,
+     * except if this instance is bound to a specific logging plan.
+     *
+     * @return The logging plan to be applied
+     */
+    protected LoggedPlan getPlan() {
+        if (boundPlan != null) {
+            return boundPlan;
+        }
+
+        Class<?> resourceClass = resourceInfo.getResourceClass();
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceClass == null || resourceMethod == null) {
+            return LoggedPlan.EMPTY;
+        }
+
+        Map<Method, LoggedPlan> plans = plansCache.computeIfAbsent(resourceClass, type -> new ConcurrentHashMap<>());
+        LoggedPlan plan = plans.get(resourceMethod);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(resourceMethod, method -> createPlan(resourceInfo));
+        }
+        return plan;
+    }
+
+    /**
+     * Creates the logging plan of the given resource method.
+     *
+     * @param resourceInfo The instance to access resource class and method
+     * @return The logging plan created
+     */
+    protected LoggedPlan createPlan(ResourceInfo resourceInfo) {
+        return LoggedPlan.of(resourceInfo, this::getBodyFiltersInstance);
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext) {
-        requestContext.setProperty(REQUEST_TIME_PROPERTY, nanoTime());
+        if (isLoggedByOther(requestContext.getProperty(REQUEST_FILTER_PROPERTY))) {
+            return;
+        }
+        requestContext.setProperty(REQUEST_FILTER_PROPERTY, this);
+
+        long phaseStart = startPhase();
+        LoggedPlan plan = getPlan();
+        LoggedContext loggedContext = new LoggedContext(nanoTime());
+        requestContext.setProperty(REQUEST_CONTEXT_PROPERTY, loggedContext);
+        // Fields left by a request suspended while processed by the current thread
+        if (LoggedContext.current() != null) {
+            cleanupMdc();
+        }
+        loggedContext.install();
         putMdc(REQUEST_ID, getRequestId(requestContext));
         putMdc(REQUEST_URI, requestContext.getUriInfo().getPath());
-        putMdc(REQUEST_PARAMETERS, requestContext.getUriInfo()
-                .getQueryParameters()
-                .entrySet()
-                .stream()
-                .sorted(comparingByKey())
-                .map(entry -> entry.getKey() + "=" + join(",", entry.getValue()))
-                .collect(joining("&")));
+        putContext(mdcFields.get(REQUEST_PARAMETERS.name()), getParameters(requestContext.getUriInfo()));
         putMdc(REQUEST_METHOD, requestContext.getMethod());
-        Optional.ofNullable(resourceInfo.getResourceClass())
-                .map(Class::getSimpleName)
-                .ifPresent(value -> putMdc(RESOURCE_CLASS, value));
-        Optional.ofNullable(resourceInfo.getResourceMethod())
-                .map(Method::getName)
-                .ifPresent(value -> putMdc(RESOURCE_METHOD, value));
-
-        Map<LogMappingType, Set<String>> exclusion = new EnumMap<>(LogMappingType.class);
-        getMergedMappings(resourceInfo).stream()
-                .sorted(comparing(LoggedMapping::auto) // Order to have auto mappings at the end to avoid overriding manual mappings
-                        .thenComparing(LoggedMapping::mdcKey)) // Order to have empty MDC key at the beginning for exclusions
-                .forEach(mapping ->
-                        putMdcFromParameters(switch (mapping.type()) {
-                            case PATH -> requestContext.getUriInfo().getPathParameters();
-                            case QUERY -> requestContext.getUriInfo().getQueryParameters();
-                            case HEADER -> requestContext.getHeaders();
-                        }, mapping, exclusion.computeIfAbsent(mapping.type(), type -> new HashSet<>())));
+        putMdc(RESOURCE_CLASS, plan.resourceClass());
+        putMdc(RESOURCE_METHOD, plan.resourceMethod());
+
+        for (LoggedPlan.Mappings mappings : plan.mappings()) {
+            putMdcFromParameters(loggedContext, switch (mappings.type()) {
+                case PATH -> requestContext.getUriInfo().getPathParameters();
+                case QUERY -> requestContext.getUriInfo().getQueryParameters();
+                case HEADER -> requestContext.getHeaders();
+            }, mappings);
+        }
+
+        putCustomFields(requestContext);
+
+        // Decides before any body capture if the request must be logged
+        boolean sampled = !plan.sampler().isActive() || plan.sampler().sample();
+        if (!sampled) {
+            requestContext.setProperty(SAMPLED_PROPERTY, false);
+        }
+
+        // Kept to be restored if the response is processed by another thread
+        if (contextStorage == Storage.MDC) {
+            loggedContext.setMdc(MDC.getCopyOfContextMap());
+        }
+        endPhase(Phase.REQUEST_FILTER, phaseStart);
 
         // Logs directly from filter in case no request body is expected as aroundReadFrom will not be called
-        if (getBodyLoggingRequest().contains(LogType.LOG) && !(requestContext.hasEntity() && requestContext.getLength() != 0)) {
+        if (sampled && plan.request().logging().contains(LogType.LOG) && !plan.request().tail() && isLogEnabled()
+                && !(requestContext.hasEntity() && requestContext.getLength() != 0)) {
             logRequest(EMPTY);
         }
     }
 
     @Override
     public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+        if (isLoggedByOther(context.getProperty(REQUEST_FILTER_PROPERTY))) {
+            return context.proceed();
+        }
+
         Object entity;
-        if (!getBodyLoggingRequest().isEmpty()) {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            TeeInputStream teeInputStream = new TeeInputStream(
-                    context.getInputStream(),
-                    new BoundedOutputStream(outputStream, getBodyLimitRequest()));
-            context.setInputStream(teeInputStream);
-            entity = context.proceed();
-            String body = getBodyFiltered(outputStream, getBodyFiltersRequest());
-            if (getBodyLoggingRequest().contains(LogType.LOG) && isNotBlank(body)) {
-                logRequest(body);
-            }
-            if (getBodyLoggingRequest().contains(LogType.MDC)) {
+        LoggedPlan.Body configuration = getPlan().request();
+        boolean captured = configuration.isCaptured(context.getMediaType());
+        if (configuration.isActive() && isLogEnabled() && isSampled(context.getProperty(SAMPLED_PROPERTY))
+                && (captured || configuration.summary())) {
+            Capture capture = captureBody(configuration, context.getMediaType(), captured, Phase.REQUEST_CAPTURE,
+                    (captureStream, boundedStream) -> {
+                        CaptureInputStream inputStream = new CaptureInputStream(context.getInputStream(), captureStream, boundedStream);
+                        context.setInputStream(inputStream);
+                        return inputStream;
+                    },
+                    () -> readEntity(context),
+                    LoggedMetrics.Endpoint::recordRequestBytes);
+            entity = capture.entity();
+            CharSequence body = capture.body();
+            // Kept until the response is known in tail mode, to be either logged or discarded
+            if (configuration.logging().contains(LogType.MDC) || configuration.tail() || eventSink != null) {
                 requestContext.setProperty(REQUEST_BODY_PROPERTY, body);
             }
+            if (configuration.logging().contains(LogType.LOG) && !configuration.tail() && hasContent(body)) {
+                logRequest(body);
+            }
         } else {
-            entity = context.proceed();
+            entity = readEntity(context);
         }
 
         return entity;
     }
 
     /**
-     * Logs the request received by the server.
+     * Reads the request entity, measuring the time spent reading it when the request is logged.
+     *
+     * @param context The context of the reader interceptor
+     * @return The entity read
+     * @throws IOException If an error occurs while reading the entity
+     */
+    protected Object readEntity(ReaderInterceptorContext context) throws IOException {
+        if (!(context.getProperty(REQUEST_CONTEXT_PROPERTY) instanceof LoggedContext loggedContext)
+                || !isLogEnabled() || !isSampled(context.getProperty(SAMPLED_PROPERTY))) {
+            return context.proceed();
+        }
+
+        long start = nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            loggedContext.setReadTime(nanoTime() - start);
+            putMdc(READ_DURATION, formatDuration(loggedContext.getReadTime()));
+        }
+    }
+
+    /**
+     * Logs the request received by the server, except when given with its response to an event sink.
      * Note that the request method and URI must have been stored in MDC before calling this method.
      *
      * @param requestBody The request body to be logged
      */
-    protected void logRequest(String requestBody) {
+    protected void logRequest(CharSequence requestBody) {
+        if (eventSink == null && isLogEnabled()) {
+            long phaseStart = startPhase();
+            emit(Map.of(), () -> writeRequest(requestBody));
+            endPhase(Phase.LOG, phaseStart);
+        }
+    }
+
+    /**
+     * Writes the log of the request received by the server, possibly in the thread of the emitter.
+     * Note that the request method and URI must be present in MDC when calling this method.
+     *
+     * @param requestBody The request body to be logged
+     */
+    protected void writeRequest(CharSequence requestBody) {
         log.info("Received {} {}{}{}",
                 getMdc(REQUEST_METHOD),
                 getMdc(REQUEST_URI),
-                isNotBlank(requestBody) ? LF : EMPTY,
+                getSeparator(requestBody),
                 requestBody);
     }
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
-        long requestStartTime = Optional.ofNullable(requestContext.getProperty(REQUEST_TIME_PROPERTY))
-                .map(Object::toString)
-                .map(Long::parseLong)
-                .orElse(nanoTime());
-        long duration = (nanoTime() - requestStartTime) / 1_000_000;
-        putMdc(DURATION, valueOf(duration));
-        putMdc(RESPONSE_STATUS, valueOf(responseContext.getStatus()));
+        if (isLoggedByOther(requestContext.getProperty(REQUEST_FILTER_PROPERTY))) {
+            return;
+        }
+
+        long phaseStart = startPhase();
+        LoggedContext loggedContext = requestContext.getProperty(REQUEST_CONTEXT_PROPERTY) instanceof LoggedContext context
+                ? context
+                : null;
+        restoreMdc(loggedContext);
+        long elapsed = loggedContext != null ? loggedContext.getElapsedTime() : 0;
+        long duration = elapsed / 1_000_000;
+        int status = responseContext.getStatus();
+        if (loggedContext != null) {
+            loggedContext.setResponse(status, elapsed);
+        }
+        putMdc(DURATION, formatDuration(elapsed));
+        putMdc(RESPONSE_STATUS, valueOf(status));
+
+        LoggedPlan plan = getPlan();
+        LoggedMetrics.Endpoint endpoint = getEndpointMetrics();
+        if (endpoint != null) {
+            endpoint.recordRequest(status, elapsed / 1_000);
+        }
+        if (isSampled(requestContext.getProperty(SAMPLED_PROPERTY))) {
+            if (plan.request().isActive() && plan.request().tail()) {
+                logRequestTail(requestContext, plan.request().isKept(status, duration));
+            }
+            if (plan.response().isActive() && !plan.response().isKept(status, duration)) {
+                requestContext.setProperty(RESPONSE_DISCARDED_PROPERTY, true);
+            }
+        } else if (plan.sampler().isForced(status, duration)) {
+            // Requests not sampled are still logged when failed or slow, including their response body
+            requestContext.setProperty(SAMPLED_PROPERTY, true);
+        }
+        endPhase(Phase.RESPONSE_FILTER, phaseStart);
 
         // Logs directly from filter in case no response body is present as aroundWriteTo will not be called
-        if (!getBodyLoggingResponse().isEmpty() && !responseContext.hasEntity()) {
-            logResponse(EMPTY);
+        if (!responseContext.hasEntity()) {
+            if (plan.response().isActive() || eventSink != null) {
+                logResponse(requestContext::getProperty, EMPTY);
+            } else {
+                cleanupRequest(loggedContext);
+            }
+        }
+    }
+
+    /**
+     * Logs or discards the request body kept until the response is known when only logged
+     * for failed or slow requests (see {@link LoggedBody#tail()}).
+     *
+     * @param requestContext The context of the request received
+     * @param kept           {@code true} if the request body must be logged, {@code false} if it must be discarded
+     */
+    protected void logRequestTail(ContainerRequestContext requestContext, boolean kept) {
+        CharSequence body = requestContext.getProperty(REQUEST_BODY_PROPERTY) instanceof CharSequence requestBody
+                ? requestBody
+                : EMPTY;
+        if (kept) {
+            if (getPlan().request().logging().contains(LogType.LOG)) {
+                logRequest(body);
+            }
+        } else {
+            discardBody(body);
+            requestContext.removeProperty(REQUEST_BODY_PROPERTY);
         }
     }
 
     @Override
     public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            String responseBody = null;
-            if (!getBodyLoggingResponse().isEmpty()) {
-                TeeOutputStream teeOutputStream = new TeeOutputStream(
-                        context.getOutputStream(),
-                        new BoundedOutputStream(outputStream, getBodyLimitResponse()));
-                context.setOutputStream(teeOutputStream);
-                context.proceed();
-                String body = getBodyFiltered(outputStream, getBodyFiltersResponse());
-                if (getBodyLoggingResponse().contains(LogType.MDC)) {
-                    putMdc(RESPONSE_BODY, body);
-                }
-                if (getBodyLoggingResponse().contains(LogType.LOG)) {
-                    responseBody = body;
-                }
-            } else {
-                context.proceed();
+        if (isLoggedByOther(context.getProperty(REQUEST_FILTER_PROPERTY))) {
+            context.proceed();
+            return;
+        }
+
+        restoreMdc(context.getProperty(REQUEST_CONTEXT_PROPERTY));
+        LoggedPlan.Body configuration = getPlan().response();
+        CharSequence responseBody = null;
+        // Streaming outputs are written progressively and possibly without end
+        boolean captured = !(context.getEntity() instanceof StreamingOutput) && configuration.isCaptured(context.getMediaType());
+        if (configuration.isActive() && isLogEnabled() && isSampled(context.getProperty(SAMPLED_PROPERTY))
+                && context.getProperty(RESPONSE_DISCARDED_PROPERTY) == null && (captured || configuration.summary())) {
+            CharSequence body = captureBody(configuration, context.getMediaType(), captured, Phase.RESPONSE_CAPTURE,
+                    (captureStream, boundedStream) -> {
+                        CaptureOutputStream outputStream = new CaptureOutputStream(context.getOutputStream(), captureStream, boundedStream);
+                        context.setOutputStream(outputStream);
+                        return outputStream;
+                    },
+                    () -> {
+                        writeEntity(context);
+                        return null;
+                    },
+                    LoggedMetrics.Endpoint::recordResponseBytes).body();
+            if (configuration.logging().contains(LogType.MDC)) {
+                context.setProperty(RESPONSE_BODY_PROPERTY, body);
             }
+            if (configuration.logging().contains(LogType.LOG) || eventSink != null) {
+                responseBody = body;
+            }
+        } else {
+            writeEntity(context);
+        }
+
+        logResponse(context::getProperty, requireNonNullElse(responseBody, EMPTY));
+    }
 
-            logResponse(requireNonNullElse(responseBody, EMPTY));
+    /**
+     * Writes the response entity, measuring the time to its first byte written when the request is logged.
+     *
+     * @param context The context of the writer interceptor
+     * @throws IOException If an error occurs while writing the entity
+     */
+    protected void writeEntity(WriterInterceptorContext context) throws IOException {
+        if (!(context.getProperty(REQUEST_CONTEXT_PROPERTY) instanceof LoggedContext loggedContext)
+                || !isLogEnabled() || !isSampled(context.getProperty(SAMPLED_PROPERTY))) {
+            context.proceed();
+            return;
+        }
+
+        context.setOutputStream(new FirstByteOutputStream(context.getOutputStream(), loggedContext));
+        context.proceed();
+        if (loggedContext.getFirstByteTime() >= 0) {
+            putMdc(FIRST_BYTE_DURATION, formatDuration(loggedContext.getFirstByteTime()));
         }
     }
 
     /**
      * Logs the response sent by the server.
      * Note that the response status and duration must have been stored in MDC before calling this method.
+     * The properties are given by the context of the caller, the injected request context being only available
+     * in the thread having received the request, and not in the one resuming an asynchronous response.
      *
+     * @param properties   The access to the properties of the request
      * @param responseBody The response body to be logged
      */
-    protected void logResponse(String responseBody) {
+    protected void logResponse(Function<String, Object> properties, CharSequence responseBody) {
+        long phaseStart = startPhase();
         try {
-            if (getBodyLoggingRequest().contains(LogType.MDC)) {
-                putMdc(REQUEST_BODY, (String) requestContext.getProperty(REQUEST_BODY_PROPERTY));
+            if (!isLogEnabled() || !isSampled(properties.apply(SAMPLED_PROPERTY))) {
+                return;
             }
 
-            log.info("Processed {} {} with status {} in {}ms{}{}",
-                    getMdc(REQUEST_METHOD),
-                    getMdc(REQUEST_URI),
-                    getMdc(RESPONSE_STATUS),
-                    getMdc(DURATION),
-                    isNotBlank(responseBody) ? LF : EMPTY,
-                    responseBody);
+            if (eventSink != null) {
+                emitExchange(createExchange(properties, responseBody));
+                return;
+            }
 
+            LoggedPlan plan = getPlan();
+            Map<LoggedField, CharSequence> bodies = new EnumMap<>(LoggedField.class);
+            if (plan.request().logging().contains(LogType.MDC)
+                    && properties.apply(REQUEST_BODY_PROPERTY) instanceof CharSequence requestBody) {
+                bodies.put(REQUEST_BODY, requestBody);
+            }
+            if (plan.response().logging().contains(LogType.MDC)
+                    && properties.apply(RESPONSE_BODY_PROPERTY) instanceof CharSequence body) {
+                bodies.put(RESPONSE_BODY, body);
+            }
+            emit(bodies, () -> writeResponse(responseBody));
         } finally {
-            cleanupMdc();
+            cleanupRequest(properties.apply(REQUEST_CONTEXT_PROPERTY));
+            endPhase(Phase.LOG, phaseStart);
         }
     }
 
     /**
-     * Applies the defined body filters to the given payload.
+     * Removes the fields of the request from the current thread once its response processed, including the MDC
+     * restored from another thread, and clears its context so that it is no longer supplied to any log.
      *
-     * @param outputStream The payload to be filtered
-     * @return The payload filtered
+     * @param state The value of the property {@link #REQUEST_CONTEXT_PROPERTY} or {@code null} if not defined
      */
-    protected String getBodyFiltered(ByteArrayOutputStream outputStream, Set<LoggedBodyFilter> filters) {
-        if (filters.isEmpty()) {
-            return outputStream.toString();
+    protected void cleanupRequest(Object state) {
+        cleanupMdc();
+        if (state instanceof LoggedContext loggedContext) {
+            if (loggedContext.isRestored() && loggedContext.getMdc() != null) {
+                loggedContext.getMdc().keySet().forEach(MDC::remove);
+            }
+            loggedContext.clear();
         }
+    }
 
-        StringBuilder bodyBuilder = new StringBuilder(outputStream.toString());
-        filters.forEach(filter -> filter.filter(bodyBuilder));
-        return bodyBuilder.toString();
+    /**
+     * Writes the log of the response sent by the server, possibly in the thread of the emitter.
+     * Note that the response status and duration must be present in MDC when calling this method.
+     *
+     * @param responseBody The response body to be logged
+     */
+    protected void writeResponse(CharSequence responseBody) {
+        log.info("Processed {} {} with status {} in {}{}{}{}",
+                getMdc(REQUEST_METHOD),
+                getMdc(REQUEST_URI),
+                getMdc(RESPONSE_STATUS),
+                getMdc(DURATION),
+                getDurationSuffix(),
+                getSeparator(responseBody),
+                responseBody);
     }
 
     /**
-     * Finds the most specific body logging configuration for the given target (request or response).
-     * If multiple configurations are defined, the one specifically targeting the given target is returned.
-     * Otherwise, the configuration targeting both request and response is returned if present.
+     * Creates the event of the request and its response to be given to the event sink.
+     * Note that the request fields must be present in MDC (or in the storage defined) when calling this method.
      *
-     * @param target The target for which to find the body logging configuration
-     * @return The most specific body logging configuration if present
+     * @param properties   The access to the properties of the request
+     * @param responseBody The response body captured
+     * @return The event of the request and its response
      */
-    protected Optional<LoggedBody> getBodyConfiguration(Target target) {
-        LoggedBody both = null;
-        for (LoggedBody logging : getAnnotation(resourceInfo, LoggedBody.class, Logged.class, Logged::value)) {
-            List<Target> targets = Arrays.asList(logging.targets());
-            if (targets.size() == 1 && targets.getFirst() == target) {
-                return Optional.of(logging);
-            }
-            if (targets.size() == 2 && targets.contains(REQUEST) && targets.contains(RESPONSE)) {
-                both = logging;
+    protected LoggedExchange createExchange(Function<String, Object> properties, CharSequence responseBody) {
+        LoggedPlan plan = getPlan();
+        LoggedContext loggedContext = properties.apply(REQUEST_CONTEXT_PROPERTY) instanceof LoggedContext context
+                ? context
+                : new LoggedContext(nanoTime());
+        CharSequence requestBody = properties.apply(REQUEST_BODY_PROPERTY) instanceof CharSequence body && hasContent(body)
+                ? body
+                : null;
+        return new LoggedExchange(
+                getMdc(REQUEST_ID),
+                getMdc(REQUEST_METHOD),
+                getMdc(REQUEST_URI),
+                getMdc(REQUEST_PARAMETERS),
+                plan.resourceClass(),
+                plan.resourceMethod(),
+                loggedContext.getStatus(),
+                loggedContext.getResponseTime(),
+                loggedContext.getReadTime(),
+                loggedContext.getFirstByteTime(),
+                loggedContext.getMappings(),
+                requestBody,
+                hasContent(responseBody) ? responseBody : null);
+    }
+
+    /**
+     * Gives the given event to the event sink, directly when no emitter is defined,
+     * or otherwise in the thread of the emitter, in which the bodies are then decoded and filtered.
+     *
+     * @param exchange The event of the request and its response
+     */
+    protected void emitExchange(LoggedExchange exchange) {
+        if (emitter == null) {
+            eventSink.accept(exchange);
+        } else {
+            emitter.emit(new LoggedEvent(null, Map.of(), () -> eventSink.accept(exchange)));
+        }
+    }
+
+    /**
+     * Gets the metrics of the resource method matched by the current request.
+     *
+     * @return The metrics of the resource method or {@code null} if not recorded
+     */
+    protected LoggedMetrics.Endpoint getEndpointMetrics() {
+        LoggedPlan plan = getPlan();
+        if (metrics == null || plan.method() == null) {
+            return null;
+        }
+        return metrics.getEndpoint(plan.type(), plan.method());
+    }
+
+    /**
+     * Gets the start time of a processing phase of this filter, if its overhead is recorded (see {@link LoggedMetrics}).
+     *
+     * @return The current time in nanoseconds or 0 if the overhead is not recorded
+     */
+    protected long startPhase() {
+        return metrics != null && metrics.isOverheadRecorded() ? nanoTime() : 0;
+    }
+
+    /**
+     * Records the time spent in the given processing phase of this filter, if its overhead is recorded.
+     *
+     * @param phase The phase executed
+     * @param start The start time of the phase given by {@link #startPhase()}
+     */
+    protected void endPhase(Phase phase, long start) {
+        if (metrics != null && metrics.isOverheadRecorded()) {
+            metrics.recordOverhead(phase, nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the size of a body captured in the metrics of the resource method matched by the current request, if any.
+     *
+     * @param bytes    The size of the body in bytes
+     * @param recorder The method recording the size in the metrics of the resource method
+     */
+    protected void recordBytes(long bytes, ObjLongConsumer<LoggedMetrics.Endpoint> recorder) {
+        LoggedMetrics.Endpoint endpoint = getEndpointMetrics();
+        if (endpoint != null) {
+            recorder.accept(endpoint, bytes);
+        }
+    }
+
+    /**
+     * Formats the given duration with the precision defined (see {@link #setDurationUnit(TimeUnit)}).
+     *
+     * @param nanos The duration in nanoseconds
+     * @return The duration converted to the precision defined
+     */
+    protected String formatDuration(long nanos) {
+        return valueOf(durationUnit.convert(nanos, NANOSECONDS));
+    }
+
+    /**
+     * Gets the symbol of the precision of the durations to be written after them in logs.
+     *
+     * @return The symbol of the unit of the durations
+     */
+    protected String getDurationSuffix() {
+        return switch (durationUnit) {
+            case NANOSECONDS -> "ns";
+            case MICROSECONDS -> "us";
+            case MILLISECONDS -> "ms";
+            case SECONDS -> "s";
+            case MINUTES -> "min";
+            case HOURS -> "h";
+            case DAYS -> "d";
+        };
+    }
+
+    /**
+     * Indicates if the logs of requests and responses are written, according to the level of the logger,
+     * or if they are given to an event sink. When they are not, the bodies are neither captured nor decoded.
+     *
+     * @return {@code true} if the logs are written, {@code false} otherwise
+     */
+    protected boolean isLogEnabled() {
+        return eventSink != null || log.isInfoEnabled();
+    }
+
+    /**
+     * Indicates if the request must be logged according to the sampling decision stored in its properties.
+     *
+     * @param decision The value of the property {@link #SAMPLED_PROPERTY} or {@code null} if not defined
+     * @return {@code true} if the request is sampled or its logging forced, {@code false} otherwise
+     */
+    protected boolean isSampled(Object decision) {
+        return !Boolean.FALSE.equals(decision);
+    }
+
+    /**
+     * Gets the separator to be written before the given body in logs, without computing it when deferred
+     * (see {@link #hasContent(CharSequence)}).
+     *
+     * @param body The body to be logged
+     * @return The line separator if the body may have some content, or an empty string otherwise
+     */
+    protected String getSeparator(CharSequence body) {
+        return hasContent(body) ? LF : EMPTY;
+    }
+
+    /**
+     * Writes a log with the given bodies added to MDC, directly when no emitter is defined,
+     * or otherwise by emitting an event with a snapshot of the current MDC (see {@link LoggedEvent}).
+     *
+     * @param bodies The bodies to be added to MDC while writing the log
+     * @param writer The action writing the log
+     */
+    protected void emit(Map<LoggedField, CharSequence> bodies, Runnable writer) {
+        if (emitter == null) {
+            bodies.forEach((field, body) -> putMdc(field, body.toString()));
+            writer.run();
+        } else {
+            Map<String, CharSequence> contextBodies = new HashMap<>();
+            bodies.forEach((field, body) -> contextBodies.put(mdcFields.get(field.name()), body));
+            emitter.emit(new LoggedEvent(getContextSnapshot(), contextBodies, writer));
+        }
+    }
+
+    /**
+     * Gets a snapshot of the diagnostic context of the current thread, including the fields of the request
+     * when kept in the context of the request (see {@link #setContextStorage(Storage)}).
+     *
+     * @return The content of the diagnostic context or {@code null} if empty
+     */
+    protected Map<String, String> getContextSnapshot() {
+        Map<String, String> snapshot = MDC.getCopyOfContextMap();
+        LoggedContext context = LoggedContext.current();
+        if (contextStorage == Storage.STRUCTURED && context != null) {
+            Map<String, String> fields = snapshot != null ? snapshot : new HashMap<>();
+            context.forEach(fields::put);
+            return fields;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the stream in which the body is captured, masking the configured fields on the fly for JSON bodies.
+     *
+     * @param boundedStream The stream writing the body captured into its buffer
+     * @param configuration The body logging configuration
+     * @param mediaType     The media type of the body
+     * @return The stream to be given to the tee stream
+     */
+    protected OutputStream getCaptureStream(OutputStream boundedStream, LoggedPlan.Body configuration, MediaType mediaType) {
+        if (configuration.masking() != null && isJson(mediaType)) {
+            return new JsonMaskingOutputStream(boundedStream, configuration.masking());
+        }
+        return boundedStream;
+    }
+
+    /**
+     * Captures the body of the entity read or written by the given processor, through the stream installed
+     * by the given factory, or only summarizes it when its media type is not captured.
+     * The time spent in the processor itself is excluded from the given phase.
+     *
+     * @param configuration The body logging configuration of the request or response
+     * @param mediaType     The media type of the entity
+     * @param captured      {@code true} to capture the body, {@code false} to only summarize it
+     * @param phase         The phase in which the time spent capturing the body is recorded
+     * @param teeFactory    The function installing the stream reading or writing the entity while capturing its bytes,
+     *                      from the stream capturing them and the stream limiting their number
+     * @param processor     The processor reading or writing the entity through the stream installed
+     * @param bytesRecorder The function recording the size of the entity in the metrics of the resource method
+     * @return The entity read (if any) and its body captured or summarized
+     * @throws IOException If an error occurs while reading or writing the entity
+     */
+    protected Capture captureBody(LoggedPlan.Body configuration, MediaType mediaType, boolean captured, Phase phase,
+                                  BiFunction<OutputStream, BoundedOutputStream, CaptureStream> teeFactory,
+                                  EntityProcessor processor,
+                                  ObjLongConsumer<LoggedMetrics.Endpoint> bytesRecorder) throws IOException {
+        long phaseStart = startPhase();
+        // Bodies not captured are only hashed while flowing through to be summarized
+        MessageDigest digest = captured ? null : getSummaryDigest();
+        LoggedBodyBuffer buffer = captured ? bufferPool.acquire(configuration.limit()) : null;
+        BoundedOutputStream boundedStream = captured
+                ? new BoundedOutputStream(buffer, configuration.limit())
+                : new BoundedOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest), -1);
+        Object entity;
+        CharSequence body = null;
+        try {
+            OutputStream captureStream = captured
+                    ? getCaptureStream(boundedStream, configuration, mediaType)
+                    : boundedStream;
+            CaptureStream teeStream = teeFactory.apply(captureStream, boundedStream);
+            long proceedStart = startPhase();
+            entity = processor.process();
+            // Excludes the reading or writing of the entity from the phase
+            phaseStart += startPhase() - proceedStart;
+            recordBytes(teeStream.getTotalBytes(), bytesRecorder);
+            if (captured) {
+                buffer.setTotalSize(teeStream.getTotalBytes(), teeStream.isTruncated());
+                body = getBody(buffer, getCharset(mediaType), configuration.filters());
+            } else {
+                body = getSummary(mediaType, teeStream.getTotalBytes(), digest);
             }
+        } finally {
+            // The entity can still be read or written afterward (for example when being a stream)
+            boundedStream.detach();
+            releaseBuffer(buffer, body);
         }
-        return Optional.ofNullable(both);
+        endPhase(phase, phaseStart);
+        return new Capture(entity, body);
     }
 
     /**
-     * Gets how the request body must be logged.
+     * Indicates if the given media type is a JSON media type, such as {@code application/json}
+     * or {@code application/problem+json}.
      *
-     * @return The types of logging to be done
+     * @param mediaType The media type of the body
+     * @return {@code true} if the body is a JSON document, {@code false} otherwise
      */
-    protected Set<LogType> getBodyLoggingRequest() {
-        return getBodyConfiguration(REQUEST)
-                .map(LoggedBody::value)
-                .stream()
-                .flatMap(Stream::of)
-                .collect(toSet());
+    protected boolean isJson(MediaType mediaType) {
+        return mediaType != null
+                && ("json".equalsIgnoreCase(mediaType.getSubtype()) || Strings.CI.endsWith(mediaType.getSubtype(), "+json"));
     }
 
     /**
-     * Gets how the response body must be logged.
+     * Creates the digest computing the hash of the bodies summarized (see {@link #SUMMARY_ALGORITHM}).
      *
-     * @return The types of logging to be done
+     * @return The digest to be updated with the bytes of the body
      */
-    protected Set<LogType> getBodyLoggingResponse() {
-        return getBodyConfiguration(RESPONSE)
-                .map(LoggedBody::value)
-                .stream()
-                .flatMap(Stream::of)
-                .collect(toSet());
+    protected MessageDigest getSummaryDigest() {
+        try {
+            return MessageDigest.getInstance(SUMMARY_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every implementation of the Java platform is required to support it
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
-     * Gets the size limit of the request body to be logged or -1 if no limit is applied.
+     * Gets the summary of a body not captured because of its media type,
+     * for example {@code [application/pdf, 1024 bytes, SHA-256 9f86d0...]}.
      *
-     * @return The maximum size of the body to be logged in bytes
+     * @param mediaType The media type of the body or {@code null} if unknown
+     * @param size      The size of the body in bytes
+     * @param digest    The digest updated with the bytes of the body
+     * @return The summary of the body
      */
-    protected int getBodyLimitRequest() {
-        return getBodyConfiguration(REQUEST)
-                .map(LoggedBody::limit)
-                .orElse(-1);
+    protected CharSequence getSummary(MediaType mediaType, long size, MessageDigest digest) {
+        StringBuilder summary = new StringBuilder().append('[');
+        if (mediaType != null) {
+            summary.append(mediaType.getType())
+                    .append('/')
+                    .append(mediaType.getSubtype())
+                    .append(", ");
+        }
+        return summary
+                .append(size)
+                .append(" bytes, ")
+                .append(SUMMARY_ALGORITHM)
+                .append(' ')
+                .append(HexFormat.of().formatHex(digest.digest()))
+                .append(']');
     }
 
     /**
-     * Gets the size limit of the response body to be logged or -1 if no limit is applied.
+     * Gets the charset of a body from its media type, or UTF-8 if not defined or not supported.
      *
-     * @return The maximum size of the body to be logged in bytes
+     * @param mediaType The media type of the body
+     * @return The charset of the body
      */
-    protected int getBodyLimitResponse() {
-        return getBodyConfiguration(RESPONSE)
-                .map(LoggedBody::limit)
-                .orElse(-1);
+    protected Charset getCharset(MediaType mediaType) {
+        String charset = mediaType != null ? mediaType.getParameters().get(CHARSET_PARAMETER) : null;
+        if (charset != null) {
+            try {
+                return Charset.forName(charset);
+            } catch (IllegalArgumentException e) {
+                log.debug("Unsupported charset {}, using {} instead", charset, UTF_8);
+            }
+        }
+        return UTF_8;
     }
 
     /**
-     * Gets the filters that must be applied before logging the request body.
+     * Gets the body captured in the given buffer, decoded and filtered only when used (see {@link LoggedDeferredBody}),
+     * meaning when the log is formatted or the body put in MDC, possibly by the emitter.
+     * The buffer is then released to the pool once the body computed or discarded, or left to the garbage collector if never used.
      *
-     * @return The list of filters to be applied
+     * @param buffer  The payload captured
+     * @param charset The charset of the payload
+     * @param filters The filters to be applied
+     * @return The body to be logged
      */
-    protected Set<LoggedBodyFilter> getBodyFiltersRequest() {
-        return getBodyFilters(getBodyConfiguration(REQUEST)
-                .map(LoggedBody::filters)
-                .stream());
+    protected CharSequence getBody(LoggedBodyBuffer buffer, Charset charset, Set<LoggedBodyFilter> filters) {
+        if (buffer.isEmpty() && !buffer.isTruncated()) {
+            return EMPTY;
+        }
+        return new LoggedDeferredBody(() -> {
+            long phaseStart = startPhase();
+            try {
+                return getBodyFiltered(buffer, charset, filters);
+            } finally {
+                bufferPool.release(buffer);
+                endPhase(Phase.BODY_FILTER, phaseStart);
+            }
+        }, () -> bufferPool.release(buffer));
+    }
+
+    /**
+     * Discards the given body without decoding nor filtering it, releasing its buffer to the pool if any.
+     *
+     * @param body The body to be discarded
+     */
+    protected void discardBody(CharSequence body) {
+        if (body instanceof LoggedDeferredBody deferredBody) {
+            deferredBody.discard();
+        }
+    }
+
+    /**
+     * Releases the given buffer to the pool, except if still needed by the given deferred body.
+     *
+     * @param buffer The buffer used to capture the body
+     * @param body   The body computed from the buffer or {@code null} if its capture failed
+     */
+    protected void releaseBuffer(LoggedBodyBuffer buffer, CharSequence body) {
+        if (!(body instanceof LoggedDeferredBody)) {
+            bufferPool.release(buffer);
+        }
     }
 
     /**
-     * Gets the filters that must be applied before logging the response body.
+     * Indicates if the given body may have some content to be logged, without computing it when deferred.
      *
-     * @return The list of filters to be applied
+     * @param body The body to be checked
+     * @return {@code true} if the body is not blank or deferred, {@code false} otherwise
      */
-    protected Set<LoggedBodyFilter> getBodyFiltersResponse() {
-        return getBodyFilters(getBodyConfiguration(RESPONSE)
-                .map(LoggedBody::filters)
-                .stream());
+    protected boolean hasContent(CharSequence body) {
+        return body instanceof LoggedDeferredBody || isNotBlank(body);
     }
 
     /**
-     * Gets the filters instances that must be applied before logging a body.
-     * Instantiates the given filters if not already done (caching).
+     * Decodes the given payload and applies the defined body filters to it.
+     * The payload is decoded only once and directly filtered in place, without any intermediate copy.
+     * If the payload has been truncated because of its size limit, it ends with {@link #TRUNCATION_MARKER}
+     * followed by the number of bytes logged and the size of the complete payload.
      *
-     * @param filtersType The stream of filters classes to be instantiated
-     * @return The list of filters to be applied
+     * @param buffer  The payload to be filtered
+     * @param charset The charset of the payload
+     * @param filters The filters to be applied
+     * @return The payload filtered
      */
-    protected Set<LoggedBodyFilter> getBodyFilters(Stream<Class<? extends LoggedBodyFilter>[]> filtersType) {
-        return filtersType
-                .flatMap(Stream::of)
-                .map(this::getBodyFiltersInstance)
-                .filter(Objects::nonNull)
-                .collect(toSet());
+    protected CharSequence getBodyFiltered(LoggedBodyBuffer buffer, Charset charset, Set<LoggedBodyFilter> filters) {
+        if (filters.isEmpty() && !buffer.isTruncated()) {
+            return buffer.toString(charset);
+        }
+
+        StringBuilder body = buffer.decode(charset);
+        filters.forEach(filter -> filter.filter(body));
+        if (buffer.isTruncated()) {
+            body.append(TRUNCATION_MARKER)
+                    .append(buffer.size())
+                    .append(" of ")
+                    .append(buffer.getTotalSize())
+                    .append(" bytes]");
+        }
+        return body;
     }
 
     /**
-     * Creates a new instance of the given body filter type.
+     * Gets the instance of the given body filter type, creating it if not already done (caching).
+     * Note that it is only called when creating the logging plan of a resource method (see {@link #getPlan()}).
      *
      * @param type The body filter class to be instantiated
      * @param <T>  The body filter type
-     * @return The instance created or {@code null} if it failed
+     * @return The instance of the body filter or {@code null} if its creation failed
      */
     protected <T extends LoggedBodyFilter> LoggedBodyFilter getBodyFiltersInstance(Class<T> type) {
         return filtersCache.computeIfAbsent(type, ignored -> {
@@ -473,6 +1359,35 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
         });
     }
 
+    /**
+     * Restores the MDC of the request in the current thread if the request has been suspended, meaning if its context
+     * is not the one installed for the current thread, for example when the response is processed asynchronously
+     * (see {@link LoggedContext}). This is also the case when the thread having received the request resumes it
+     * after having processed other requests. The fields of any other request kept by the current thread are removed
+     * before, and the MDC restored is then removed from the current thread once the response logged.
+     * When the fields are kept in the context of the request, this context is installed for the current thread instead.
+     *
+     * @param state The value of the property {@link #REQUEST_CONTEXT_PROPERTY} or {@code null} if not defined
+     */
+    protected void restoreMdc(Object state) {
+        if (state instanceof LoggedContext loggedContext && LoggedContext.current() != loggedContext) {
+            if (LoggedContext.current() != null) {
+                cleanupMdc();
+            }
+            loggedContext.markRestored();
+            loggedContext.install();
+            if (contextStorage == Storage.STRUCTURED) {
+                return;
+            }
+            if (loggedContext.getMdc() != null) {
+                loggedContext.getMdc().forEach(MDC::put);
+            }
+            if (loggedContext.getReadTime() >= 0) {
+                putMdc(READ_DURATION, formatDuration(loggedContext.getReadTime()));
+            }
+        }
+    }
+
     /**
      * Removes all MDC fields defined in
      * <ul>
@@ -481,9 +1396,64 @@ public class LoggedFilter implements ContainerRequestFilter, ContainerResponseFi
      *     <li>{@link #filter(ContainerRequestContext, ContainerResponseContext)}</li>
      *     <li>{@link #aroundWriteTo(WriterInterceptorContext)}</li>
      * </ul>
+     * as well as the parameters mapped, and removes the context of the request from the current thread.
+     * When the fields are kept in the context of the request, the fields put in MDC by the subclasses are still removed,
+     * the MDC being left untouched if they are not present.
      */
     protected void cleanupMdc() {
-        mdcFields.values().forEach(MDC::remove);
+        for (String key : mdcFields.values()) {
+            if (contextStorage == Storage.MDC || MDC.get(key) != null) {
+                MDC.remove(key);
+            }
+        }
+        LoggedContext context = LoggedContext.current();
+        if (context != null) {
+            context.getMdcKeys().forEach(MDC::remove);
+        }
+        LoggedContext.uninstall();
+    }
+
+    /**
+     * Format of the query parameters of the requests.
+     */
+    public enum ParametersFormat {
+
+        /**
+         * Parameters decoded and sorted by name, with their values separated by commas.
+         */
+        SORTED,
+
+        /**
+         * Raw query string of the request, neither decoded nor sorted.
+         */
+        RAW
+
+    }
+
+    /**
+     * Processor reading or writing an entity while its body is captured (see {@link #captureBody}).
+     */
+    @FunctionalInterface
+    protected interface EntityProcessor {
+
+        /**
+         * Reads or writes the entity.
+         *
+         * @return The entity read or {@code null} when written
+         * @throws IOException If an error occurs while reading or writing the entity
+         */
+        Object process() throws IOException;
+
+    }
+
+    /**
+     * Entity read or written and its body captured.
+     *
+     * @param entity The entity read or {@code null} when written
+     * @param body   The body captured or summarized, possibly deferred (see {@link LoggedDeferredBody})
+     */
+    protected record Capture(Object entity, CharSequence body) {
+
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of positive values recorded without locking, for example the latencies of requests in microseconds.
+ * <p>
+ * The values are counted in log-linear buckets, as done by HDR histograms: each power of two is divided into
+ * {@link #SUB_BUCKETS} buckets of equal width, the values below {@link #SUB_BUCKETS} being counted exactly.
+ * The relative error of the percentiles is then bounded to 1/{@link #SUB_BUCKETS}, whatever the magnitude of the values,
+ * with a fixed memory footprint and a recording reduced to a few bit operations and an atomic increment.
+ */
+public class LoggedHistogram {
+
+    /**
+     * Number of bits of the sub-buckets within a power of two.
+     */
+    protected static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of buckets each power of two is divided into.
+     */
+    protected static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Highest value that can be recorded, higher values being recorded as this one.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(getIndex(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Gets the index of the bucket in which the given value is counted.
+     *
+     * @param value The value to be recorded
+     * @return The index of the bucket
+     */
+    protected static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Gets the highest value counted in the bucket of the given index.
+     *
+     * @param index The index of the bucket
+     * @return The highest value of the bucket
+     */
+    protected static long getHighestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records the given value, negative values being recorded as zero.
+     *
+     * @param value The value to be recorded
+     */
+    public void record(long value) {
+        long bounded = Math.clamp(value, 0, MAX_VALUE);
+        buckets.incrementAndGet(getIndex(bounded));
+        count.increment();
+        sum.add(bounded);
+        if (bounded > max.get()) {
+            max.accumulateAndGet(bounded, Math::max);
+        }
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the highest value recorded.
+     *
+     * @return The highest value or 0 if no value has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return The mean or 0 if no value has been recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total > 0 ? (double) sum.sum() / total : 0;
+    }
+
+    /**
+     * Gets the value below which the given percentage of the values recorded are,
+     * as the highest value of the bucket reaching this percentage, bounded by the highest value recorded.
+     * Note that the values recorded concurrently may or may not be taken into account.
+     *
+     * @param percentile The percentage of values, between 0 and 100
+     * @return The value at the given percentile or 0 if no value has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.clamp(percentile, 0, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getHighestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+}
@@ -0,0 +1,446 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.util.stream.Collectors.joining;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Metrics of the requests processed by the resource methods, recorded by {@link LoggedFilter}
+ * from the duration and status it already computes, without any additional filter or lookup.
+ * For each resource method, the following metrics are recorded (see {@link Endpoint}):
+ * <ul>
+ *     <li>Latency of the requests in microseconds (see {@link LoggedHistogram})</li>
+ *     <li>Number of responses by status class (1xx to 5xx)</li>
+ *     <li>Total size of the request and response bodies captured</li>
+ * </ul>
+ * Optionally, the time spent by the filter itself is also recorded for each of its processing phases (see {@link Phase}),
+ * for all the resource methods, in order to measure the overhead of the logging.
+ * <p>
+ * When created with an {@link MBeanServer}, the metrics of each resource method are also exposed through JMX
+ * (see {@link LoggedEndpointMXBean}), registered with the name {@code com.chavaillaz.jakarta.rs:type=LoggedEndpoint}
+ * completed by the quoted names of the resource class and method (with its parameter types), as well as the time spent in each phase (see {@link LoggedOverheadMXBean})
+ * with the name {@code com.chavaillaz.jakarta.rs:type=LoggedOverhead} completed by the phase.
+ * They are unregistered once these metrics closed.
+ */
+public class LoggedMetrics implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggedMetrics.class);
+
+    /**
+     * Domain of the names under which the metrics are registered in JMX.
+     */
+    public static final String DOMAIN = "com.chavaillaz.jakarta.rs";
+
+    private final Map<Class<?>, Map<Method, Endpoint>> endpoints = new ConcurrentHashMap<>();
+    private final Queue<ObjectName> registered = new ConcurrentLinkedQueue<>();
+    private final Map<Phase, Overhead> overheads = new EnumMap<>(Phase.class);
+    private final MBeanServer mbeanServer;
+
+    /**
+     * Creates new metrics, not exposed through JMX and without the overhead of the filter.
+     */
+    public LoggedMetrics() {
+        this(null);
+    }
+
+    /**
+     * Creates new metrics, exposed through JMX with the given server, for example
+     * {@link java.lang.management.ManagementFactory#getPlatformMBeanServer()}, without the overhead of the filter.
+     *
+     * @param mbeanServer The server in which the metrics are registered or {@code null} to not expose them
+     */
+    public LoggedMetrics(MBeanServer mbeanServer) {
+        this(mbeanServer, false);
+    }
+
+    /**
+     * Creates new metrics, exposed through JMX with the given server.
+     *
+     * @param mbeanServer The server in which the metrics are registered or {@code null} to not expose them
+     * @param overhead    {@code true} to record the time spent in each phase of the filter, {@code false} otherwise
+     */
+    public LoggedMetrics(MBeanServer mbeanServer, boolean overhead) {
+        this.mbeanServer = mbeanServer;
+        if (overhead) {
+            for (Phase phase : Phase.values()) {
+                Overhead phaseOverhead = new Overhead();
+                overheads.put(phase, phaseOverhead);
+                try {
+                    register(phaseOverhead, getObjectName(phase));
+                } catch (JMException e) {
+                    log.warn("Unable to register overhead of {}", phase, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the metrics of the given resource method, creating them if not already done.
+     * The resource methods are distinguished by the full name of their class and by their parameter types,
+     * so that overloaded methods and classes with the same simple name in different packages are not mixed.
+     *
+     * @param resourceClass  The resource class
+     * @param resourceMethod The resource method
+     * @return The metrics of the resource method
+     */
+    public Endpoint getEndpoint(Class<?> resourceClass, Method resourceMethod) {
+        Map<Method, Endpoint> methods = endpoints.computeIfAbsent(resourceClass, type -> new ConcurrentHashMap<>());
+        Endpoint endpoint = methods.get(resourceMethod);
+        if (endpoint == null) {
+            endpoint = methods.computeIfAbsent(resourceMethod, method ->
+                    register(new Endpoint(resourceClass.getName(), getSignature(method))));
+        }
+        return endpoint;
+    }
+
+    /**
+     * Gets the signature of the given resource method, identifying it in its class.
+     *
+     * @param resourceMethod The resource method
+     * @return The method name followed by its parameter types, for example {@code get(java.lang.String,int)}
+     */
+    protected String getSignature(Method resourceMethod) {
+        return Stream.of(resourceMethod.getParameterTypes())
+                .map(Class::getTypeName)
+                .collect(joining(",", resourceMethod.getName() + "(", ")"));
+    }
+
+    /**
+     * Gets the metrics of all the resource methods having processed requests.
+     *
+     * @return The metrics by resource class and method signature, separated by a dot and sorted
+     */
+    public Map<String, Endpoint> getEndpoints() {
+        Map<String, Endpoint> snapshot = new TreeMap<>();
+        endpoints.values().forEach(methods -> methods.values()
+                .forEach(endpoint -> snapshot.put(endpoint.getName(), endpoint)));
+        return snapshot;
+    }
+
+    /**
+     * Indicates if the time spent in each phase of the filter is recorded.
+     *
+     * @return {@code true} if the overhead of the filter is recorded, {@code false} otherwise
+     */
+    public boolean isOverheadRecorded() {
+        return !overheads.isEmpty();
+    }
+
+    /**
+     * Records the time spent in the given phase of the filter, if the overhead of the filter is recorded.
+     *
+     * @param phase The phase executed
+     * @param time  The time spent in nanoseconds
+     */
+    public void recordOverhead(Phase phase, long time) {
+        Overhead overhead = overheads.get(phase);
+        if (overhead != null) {
+            overhead.record(time);
+        }
+    }
+
+    /**
+     * Gets the time spent in the given phase of the filter.
+     *
+     * @param phase The phase of the filter
+     * @return The time spent in the phase or {@code null} if the overhead of the filter is not recorded
+     */
+    public Overhead getOverhead(Phase phase) {
+        return overheads.get(phase);
+    }
+
+    /**
+     * Gets the name under which the metrics of the given resource method are registered in JMX.
+     *
+     * @param endpoint The metrics of the resource method
+     * @return The name of the metrics
+     * @throws JMException If the name is invalid
+     */
+    protected ObjectName getObjectName(Endpoint endpoint) throws JMException {
+        return new ObjectName(DOMAIN + ":type=LoggedEndpoint"
+                + ",class=" + ObjectName.quote(endpoint.resourceClass)
+                + ",method=" + ObjectName.quote(endpoint.resourceMethod));
+    }
+
+    /**
+     * Gets the name under which the time spent in the given phase of the filter is registered in JMX.
+     *
+     * @param phase The phase of the filter
+     * @return The name of the metrics
+     * @throws JMException If the name is invalid
+     */
+    protected ObjectName getObjectName(Phase phase) throws JMException {
+        return new ObjectName(DOMAIN + ":type=LoggedOverhead,phase=" + phase);
+    }
+
+    private Endpoint register(Endpoint endpoint) {
+        try {
+            register(endpoint, getObjectName(endpoint));
+        } catch (JMException e) {
+            log.warn("Unable to register metrics of {}", endpoint.getName(), e);
+        }
+        return endpoint;
+    }
+
+    private void register(Object metrics, ObjectName name) throws JMException {
+        if (mbeanServer != null) {
+            mbeanServer.registerMBean(metrics, name);
+            registered.add(name);
+        }
+    }
+
+    /**
+     * Unregisters the metrics from JMX, if exposed.
+     */
+    @Override
+    public void close() {
+        for (ObjectName name : registered) {
+            try {
+                if (mbeanServer.isRegistered(name)) {
+                    mbeanServer.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                log.warn("Unable to unregister metrics {}", name, e);
+            }
+        }
+        registered.clear();
+    }
+
+    /**
+     * Processing phases of the filter whose time spent can be recorded.
+     * Note that the time spent in the resource method and in the reading or writing of the entities is excluded.
+     */
+    public enum Phase {
+
+        /**
+         * Filtering of the request received, mainly putting its information in MDC (see {@link LoggedFilter#filter(jakarta.ws.rs.container.ContainerRequestContext)}).
+         */
+        REQUEST_FILTER,
+
+        /**
+         * Setup and completion of the capture of the request body, excluding the reading of the entity.
+         */
+        REQUEST_CAPTURE,
+
+        /**
+         * Filtering of the response, once computed, excluding its logging.
+         */
+        RESPONSE_FILTER,
+
+        /**
+         * Setup and completion of the capture of the response body, excluding the writing of the entity and its logging.
+         */
+        RESPONSE_CAPTURE,
+
+        /**
+         * Decoding and filtering of a body captured, possibly in the thread of the emitter (see {@link LoggedEmitter}).
+         */
+        BODY_FILTER,
+
+        /**
+         * Logging of the request or the response, including the cleanup of MDC. When written synchronously,
+         * it also includes the formatting of the log and the decoding and filtering of the bodies.
+         */
+        LOG
+
+    }
+
+    /**
+     * Time spent in a processing phase of the filter, recorded in striped counters to avoid contention.
+     */
+    public static class Overhead implements LoggedOverheadMXBean {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+
+        /**
+         * Records an execution of the phase.
+         *
+         * @param time The time spent in nanoseconds
+         */
+        public void record(long time) {
+            count.increment();
+            totalTime.add(time);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getTotalTime() {
+            return totalTime.sum();
+        }
+
+        @Override
+        public double getMeanTime() {
+            long executions = count.sum();
+            return executions > 0 ? (double) totalTime.sum() / executions : 0;
+        }
+
+    }
+
+    /**
+     * Metrics of the requests processed by a resource method.
+     */
+    public static class Endpoint implements LoggedEndpointMXBean {
+
+        private final String resourceClass;
+        private final String resourceMethod;
+        private final LoggedHistogram latency = new LoggedHistogram();
+        private final LongAdder[] statuses = new LongAdder[5];
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+
+        /**
+         * Creates new metrics for a resource method.
+         *
+         * @param resourceClass  The full name of the resource class
+         * @param resourceMethod The signature of the resource method
+         */
+        public Endpoint(String resourceClass, String resourceMethod) {
+            this.resourceClass = resourceClass;
+            this.resourceMethod = resourceMethod;
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Gets the name of the resource method.
+         *
+         * @return The full name of the resource class and the method signature separated by a dot
+         */
+        public String getName() {
+            return resourceClass + "." + resourceMethod;
+        }
+
+        /**
+         * Records a request processed.
+         *
+         * @param status  The status of the response
+         * @param latency The latency of the request in microseconds
+         */
+        public void recordRequest(int status, long latency) {
+            this.latency.record(latency);
+            int statusClass = status / 100 - 1;
+            if (statusClass >= 0 && statusClass < statuses.length) {
+                statuses[statusClass].increment();
+            }
+        }
+
+        /**
+         * Records the size of a request body captured.
+         *
+         * @param bytes The size in bytes
+         */
+        public void recordRequestBytes(long bytes) {
+            requestBytes.add(bytes);
+        }
+
+        /**
+         * Records the size of a response body captured.
+         *
+         * @param bytes The size in bytes
+         */
+        public void recordResponseBytes(long bytes) {
+            responseBytes.add(bytes);
+        }
+
+        /**
+         * Gets the histogram of the latencies of the requests, in microseconds.
+         *
+         * @return The histogram of the latencies
+         */
+        public LoggedHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        @Override
+        public double getLatencyMean() {
+            return latency.getMean();
+        }
+
+        @Override
+        public long getLatencyP50() {
+            return latency.getValueAtPercentile(50);
+        }
+
+        @Override
+        public long getLatencyP90() {
+            return latency.getValueAtPercentile(90);
+        }
+
+        @Override
+        public long getLatencyP99() {
+            return latency.getValueAtPercentile(99);
+        }
+
+        @Override
+        public long getLatencyP999() {
+            return latency.getValueAtPercentile(99.9);
+        }
+
+        @Override
+        public long getLatencyMax() {
+            return latency.getMax();
+        }
+
+        @Override
+        public long getStatus1xx() {
+            return statuses[0].sum();
+        }
+
+        @Override
+        public long getStatus2xx() {
+            return statuses[1].sum();
+        }
+
+        @Override
+        public long getStatus3xx() {
+            return statuses[2].sum();
+        }
+
+        @Override
+        public long getStatus4xx() {
+            return statuses[3].sum();
+        }
+
+        @Override
+        public long getStatus5xx() {
+            return statuses[4].sum();
+        }
+
+        @Override
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        @Override
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.chavaillaz.jakarta.rs;
+
+/**
+ * Management interface exposing through JMX the time spent by {@link LoggedFilter} in one of its processing phases
+ * (see {@link LoggedMetrics.Phase}). The times are given in nanoseconds.
+ */
+public interface LoggedOverheadMXBean {
+
+    /**
+     * Gets the number of times the phase has been executed.
+     *
+     * @return The number of executions
+     */
+    long getCount();
+
+    /**
+     * Gets the total time spent in the phase.
+     *
+     * @return The time in nanoseconds
+     */
+    long getTotalTime();
+
+    /**
+     * Gets the mean time spent in the phase.
+     *
+     * @return The time in nanoseconds
+     */
+    double getMeanTime();
+
+}
@@ -0,0 +1,318 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedBody.Target.REQUEST;
+import static com.chavaillaz.jakarta.rs.LoggedBody.Target.RESPONSE;
+import static com.chavaillaz.jakarta.rs.LoggedUtils.getAnnotation;
+import static com.chavaillaz.jakarta.rs.LoggedUtils.getBodyConfiguration;
+import static com.chavaillaz.jakarta.rs.LoggedUtils.getMergedMappings;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
+import com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
+import org.apache.commons.lang3.Strings;
+
+/**
+ * Logging configuration of a resource method, resolved once from the annotations present on the method,
+ * its interfaces and its class (see {@link LoggedUtils}) in order to avoid any reflection when processing requests.
+ *
+ * @param type           The resource class matched or {@code null} if unknown
+ * @param method         The resource method matched or {@code null} if unknown
+ * @param resourceClass  The simple name of the resource class matched or {@code null} if unknown
+ * @param resourceMethod The name of the resource method matched or {@code null} if unknown
+ * @param request        The body logging configuration of the request
+ * @param response       The body logging configuration of the response
+ * @param mappings       The mappings to be applied, compiled for each type of parameters having any
+ * @param sampler        The sampling of the requests to be logged
+ */
+public record LoggedPlan(
+        Class<?> type,
+        Method method,
+        String resourceClass,
+        String resourceMethod,
+        Body request,
+        Body response,
+        List<Mappings> mappings,
+        LoggedSampler sampler) {
+
+    /**
+     * Plan used when the resource method matched by the current request is unknown.
+     */
+    public static final LoggedPlan EMPTY = new LoggedPlan(null, null, null, null, Body.NONE, Body.NONE, List.of(), LoggedSampler.ALWAYS);
+
+    /**
+     * Resolves the logging plan of the resource class and method matched by a request.
+     *
+     * @param resourceInfo  The instance to access resource class and method
+     * @param filterFactory The function instantiating the body filters or returning {@code null} if it failed
+     * @return The logging plan of the resource method
+     * @throws IllegalArgumentException If the sampling ratio, one of the masked paths, redacted patterns or media types is invalid
+     */
+    public static LoggedPlan of(ResourceInfo resourceInfo, Function<Class<? extends LoggedBodyFilter>, LoggedBodyFilter> filterFactory) {
+        if (resourceInfo.getResourceClass() == null || resourceInfo.getResourceMethod() == null) {
+            return EMPTY;
+        }
+
+        return new LoggedPlan(
+                resourceInfo.getResourceClass(),
+                resourceInfo.getResourceMethod(),
+                resourceInfo.getResourceClass().getSimpleName(),
+                resourceInfo.getResourceMethod().getName(),
+                Body.of(getBodyConfiguration(resourceInfo, REQUEST), filterFactory),
+                Body.of(getBodyConfiguration(resourceInfo, RESPONSE), filterFactory),
+                Mappings.of(getMergedMappings(resourceInfo)),
+                LoggedSampler.of(getAnnotation(resourceInfo, Logged.class).stream().findFirst()));
+    }
+
+    /**
+     * Mappings of the parameters of a type (path, query or headers) to MDC keys, compiled from the annotations
+     * in order to be applied without accessing them, nor creating any collection or sorting them for each request.
+     * <p>
+     * Each manual mapping takes the value of the first of its parameters present, and the other parameters
+     * are then mapped automatically with each prefix, except the ones mapped manually or excluded.
+     *
+     * @param type         The type of parameters mapped
+     * @param keys         The MDC keys of the manual mappings, including their prefix, in the order they must be applied
+     * @param paramNames   The parameter names of each manual mapping, at the same index as its MDC key
+     * @param autoPrefixes The prefixes of the MDC keys of the parameters mapped automatically, empty if none
+     * @param exclusions   The parameter names excluded from the automatic mappings (already mapped or explicitly excluded)
+     */
+    public record Mappings(LogMappingType type, String[] keys, String[][] paramNames, String[] autoPrefixes,
+                           Set<String> exclusions) {
+
+        /**
+         * Compiles the given mappings for each type of parameters having any.
+         * The mappings excluding parameters are resolved first, so that these parameters are not mapped by others,
+         * and a parameter is only mapped by the first manual mapping containing it.
+         *
+         * @param mappings The mappings merged from the annotations
+         * @return The mappings compiled for each type of parameters
+         */
+        public static List<Mappings> of(Collection<LoggedMapping> mappings) {
+            Map<LogMappingType, List<LoggedMapping>> manuals = new EnumMap<>(LogMappingType.class);
+            Map<LogMappingType, List<String>> autoPrefixes = new EnumMap<>(LogMappingType.class);
+            Map<LogMappingType, Set<String>> exclusions = new EnumMap<>(LogMappingType.class);
+
+            // Order to have empty MDC key at the beginning for exclusions
+            mappings.stream()
+                    .sorted(comparing(LoggedMapping::auto).thenComparing(LoggedMapping::mdcKey))
+                    .forEach(mapping -> {
+                        Set<String> exclusion = exclusions.computeIfAbsent(mapping.type(), type -> new HashSet<>());
+                        if (mapping.auto()) {
+                            autoPrefixes.computeIfAbsent(mapping.type(), type -> new ArrayList<>()).add(mapping.mdcPrefix());
+                        } else if (Stream.of(mapping.paramNames()).noneMatch(exclusion::contains)) {
+                            // Avoid a field to be mapped multiple times
+                            exclusion.addAll(List.of(mapping.paramNames()));
+                            // MDC key can be blank in case of exclusion
+                            if (isNotBlank(mapping.mdcKey())) {
+                                manuals.computeIfAbsent(mapping.type(), type -> new ArrayList<>()).add(mapping);
+                            }
+                        }
+                    });
+
+            List<Mappings> compiled = new ArrayList<>();
+            for (LogMappingType type : LogMappingType.values()) {
+                List<LoggedMapping> manual = manuals.getOrDefault(type, List.of());
+                List<String> prefixes = autoPrefixes.getOrDefault(type, List.of());
+                if (!manual.isEmpty() || !prefixes.isEmpty()) {
+                    compiled.add(new Mappings(
+                            type,
+                            manual.stream().map(mapping -> mapping.mdcPrefix() + mapping.mdcKey()).toArray(String[]::new),
+                            manual.stream().map(LoggedMapping::paramNames).toArray(String[][]::new),
+                            prefixes.toArray(String[]::new),
+                            Set.copyOf(exclusions.getOrDefault(type, Set.of()))));
+                }
+            }
+            return List.copyOf(compiled);
+        }
+
+        /**
+         * Indicates if the parameters not mapped manually must be mapped automatically.
+         *
+         * @return {@code true} if there is any automatic mapping, {@code false} otherwise
+         */
+        public boolean isAuto() {
+            return autoPrefixes.length > 0;
+        }
+
+    }
+
+    /**
+     * Body logging configuration of a request or a response.
+     *
+     * @param logging       The types of logging to be done
+     * @param limit         The maximum size of the body to be logged in bytes or -1 if no limit is applied
+     * @param filters       The filters to be applied before logging the body, in their declaration order,
+     *                      after the redaction of the keys and patterns declared if any
+     * @param masking       The paths of the fields to be masked in JSON bodies or {@code null} if none
+     * @param tail          Indicates if the body must be logged only for failed or slow requests
+     * @param tailThreshold The duration in milliseconds from which the body is logged in tail mode or -1 if none
+     * @param mediaTypes    The media types of the bodies to be captured
+     * @param excluded      The media types of the bodies not to be captured, even if matching the ones to be captured
+     * @param summary       Indicates if the bodies not captured because of their media type must be summarized
+     */
+    public record Body(Set<LogType> logging, int limit, Set<LoggedBodyFilter> filters, JsonMaskingOutputStream.Paths masking,
+                       boolean tail, long tailThreshold, MediaRange[] mediaTypes, MediaRange[] excluded, boolean summary) {
+
+        /**
+         * Configuration used when the body must not be logged.
+         */
+        public static final Body NONE = new Body(Set.of(), -1, Set.of(), null, false, -1,
+                new MediaRange[0], new MediaRange[0], false);
+
+        /**
+         * Resolves the body logging configuration from the given annotation.
+         *
+         * @param configuration The body logging annotation if present
+         * @param filterFactory The function instantiating the body filters or returning {@code null} if it failed
+         * @return The body logging configuration
+         * @throws IllegalArgumentException If one of the masked paths, redacted patterns or media types is invalid
+         */
+        public static Body of(Optional<LoggedBody> configuration, Function<Class<? extends LoggedBodyFilter>, LoggedBodyFilter> filterFactory) {
+            return configuration
+                    .map(logging -> new Body(
+                            Stream.of(logging.value()).collect(toUnmodifiableSet()),
+                            logging.limit(),
+                            Stream.concat(getRedactionFilter(logging), Stream.of(logging.filters()).map(filterFactory))
+                                    .filter(Objects::nonNull)
+                                    .collect(collectingAndThen(toCollection(LinkedHashSet::new), Collections::unmodifiableSet)),
+                            logging.maskedPaths().length > 0 ? JsonMaskingOutputStream.Paths.compile(logging.maskedPaths()) : null,
+                            logging.tail(),
+                            logging.tailThreshold(),
+                            MediaRange.of(logging.mediaTypes()),
+                            MediaRange.of(logging.excludedMediaTypes()),
+                            logging.summary()))
+                    .orElse(NONE);
+        }
+
+        /**
+         * Creates the filter redacting the keys and patterns of the given annotation, if any.
+         *
+         * @param configuration The body logging annotation
+         * @return The redaction filter or an empty stream if nothing must be redacted
+         */
+        private static Stream<LoggedBodyFilter> getRedactionFilter(LoggedBody configuration) {
+            if (configuration.redactedKeys().length == 0 && configuration.redactedPatterns().length == 0) {
+                return Stream.empty();
+            }
+            return Stream.of(new RedactionBodyFilter(
+                    List.of(configuration.redactedKeys()),
+                    List.of(configuration.redactedPatterns())));
+        }
+
+        /**
+         * Indicates if the body must be logged in any way.
+         *
+         * @return {@code true} if the body must be captured, {@code false} otherwise
+         */
+        public boolean isActive() {
+            return !logging.isEmpty();
+        }
+
+        /**
+         * Indicates if the body must be logged for the given response, always being the case when not in tail mode.
+         *
+         * @param status   The status of the response
+         * @param duration The duration of the request in milliseconds
+         * @return {@code true} if the body must be logged, {@code false} if it must be discarded
+         */
+        public boolean isKept(int status, long duration) {
+            return !tail || status >= 400 || (tailThreshold >= 0 && duration >= tailThreshold);
+        }
+
+        /**
+         * Indicates if the body must be captured according to its media type,
+         * meaning when it is unknown or matching the media types to be captured but none of the excluded ones.
+         *
+         * @param mediaType The media type of the body or {@code null} if unknown
+         * @return {@code true} if the body must be captured, {@code false} if it must flow through
+         */
+        public boolean isCaptured(MediaType mediaType) {
+            return mediaType == null || (MediaRange.matches(mediaTypes, mediaType) && !MediaRange.matches(excluded, mediaType));
+        }
+
+    }
+
+    /**
+     * Range of media types parsed once from the annotations, in lower case and without parameters,
+     * supporting the wildcards {@code *} for the type or subtype and {@code *+suffix} for the subtype.
+     *
+     * @param type    The type, such as {@code application} or {@code *}
+     * @param subtype The subtype, such as {@code json}, {@code *+json} or {@code *}
+     */
+    public record MediaRange(String type, String subtype) {
+
+        /**
+         * Parses the given media types, such as {@code text/*} or {@code application/*+json; charset=UTF-8}.
+         *
+         * @param mediaTypes The media types to be parsed
+         * @return The ranges of media types
+         * @throws IllegalArgumentException If one of the media types has no type or subtype
+         */
+        public static MediaRange[] of(String... mediaTypes) {
+            MediaRange[] ranges = new MediaRange[mediaTypes.length];
+            for (int i = 0; i < mediaTypes.length; i++) {
+                int end = mediaTypes[i].indexOf(';');
+                String value = (end < 0 ? mediaTypes[i] : mediaTypes[i].substring(0, end)).trim().toLowerCase(Locale.ROOT);
+                int separator = value.indexOf('/');
+                if (separator <= 0 || separator == value.length() - 1) {
+                    throw new IllegalArgumentException("Invalid media type: " + mediaTypes[i]);
+                }
+                ranges[i] = new MediaRange(value.substring(0, separator), value.substring(separator + 1));
+            }
+            return ranges;
+        }
+
+        /**
+         * Indicates if the given media type matches any of the given ranges.
+         *
+         * @param ranges    The ranges of media types
+         * @param mediaType The media type to be checked
+         * @return {@code true} if one of the ranges matches the media type, {@code false} otherwise
+         */
+        public static boolean matches(MediaRange[] ranges, MediaType mediaType) {
+            for (MediaRange range : ranges) {
+                if (range.matches(mediaType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Indicates if the given media type is part of this range.
+         *
+         * @param mediaType The media type to be checked
+         * @return {@code true} if the media type matches this range, {@code false} otherwise
+         */
+        public boolean matches(MediaType mediaType) {
+            return ("*".equals(type) || type.equalsIgnoreCase(mediaType.getType()))
+                    && ("*".equals(subtype)
+                    || (subtype.startsWith("*+") && Strings.CI.endsWith(mediaType.getSubtype(), subtype.substring(1)))
+                    || subtype.equalsIgnoreCase(mediaType.getSubtype()));
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.System.nanoTime;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampling of the requests to be logged for a resource method, configured with {@link Logged#sampling()},
+ * {@link Logged#rateLimit()}, {@link Logged#slowThreshold()} and {@link Logged#errorStatus()}.
+ * <p>
+ * The decision is taken when the request is received, before any body capture, in order for the requests
+ * not sampled to be processed without any logging cost. Once the response computed, the requests not sampled
+ * are still logged if they failed or were slow (see {@link #isForced(int, long)}), but without their request body.
+ * <p>
+ * The rate limit is applied with a token bucket shared by all the requests of the resource method,
+ * implemented lock-free with the generic cell rate algorithm: a single timestamp is kept,
+ * corresponding to the time at which the bucket will be full again.
+ */
+public class LoggedSampler {
+
+    /**
+     * Sampler logging all the requests.
+     */
+    public static final LoggedSampler ALWAYS = new LoggedSampler(1, -1, -1, 500);
+
+    private final double ratio;
+    private final int rateLimit;
+    private final long slowThreshold;
+    private final int errorStatus;
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong theoreticalTime = new AtomicLong(nanoTime());
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param ratio         The ratio of requests to be logged, between 0 and 1
+     * @param rateLimit     The maximum number of requests to be logged per second or -1 if not limited
+     * @param slowThreshold The duration in milliseconds from which requests are always logged or -1 if none
+     * @param errorStatus   The response status from which requests are always logged or -1 if none
+     * @throws IllegalArgumentException If the ratio is not between 0 and 1
+     */
+    public LoggedSampler(double ratio, int rateLimit, long slowThreshold, int errorStatus) {
+        if (!(ratio >= 0 && ratio <= 1)) {
+            throw new IllegalArgumentException("Sampling ratio must be between 0 and 1: " + ratio);
+        }
+        this.ratio = ratio;
+        this.rateLimit = rateLimit;
+        this.slowThreshold = slowThreshold;
+        this.errorStatus = errorStatus;
+        // Allows a burst of one second of requests, then one request every interval
+        this.interval = rateLimit > 0 ? 1_000_000_000L / rateLimit : 0;
+        this.tolerance = rateLimit > 0 ? (rateLimit - 1) * interval : 0;
+    }
+
+    /**
+     * Resolves the sampler from the given annotation.
+     *
+     * @param configuration The logging annotation if present
+     * @return The sampler or {@link #ALWAYS} if all the requests must be logged
+     * @throws IllegalArgumentException If the sampling ratio is not between 0 and 1
+     */
+    public static LoggedSampler of(Optional<Logged> configuration) {
+        return configuration
+                .filter(logged -> logged.sampling() < 1 || logged.rateLimit() >= 0)
+                .map(logged -> new LoggedSampler(logged.sampling(), logged.rateLimit(), logged.slowThreshold(), logged.errorStatus()))
+                .orElse(ALWAYS);
+    }
+
+    /**
+     * Indicates if some requests may not be logged.
+     *
+     * @return {@code true} if requests are sampled, {@code false} if all of them are logged
+     */
+    public boolean isActive() {
+        return ratio < 1 || rateLimit >= 0;
+    }
+
+    /**
+     * Decides if the request received must be logged, consuming a token of the rate limit if it is.
+     *
+     * @return {@code true} if the request must be logged, {@code false} otherwise
+     */
+    public boolean sample() {
+        if (ratio < 1 && (ratio == 0 || ThreadLocalRandom.current().nextDouble() >= ratio)) {
+            return false;
+        }
+        return rateLimit < 0 || tryAcquire();
+    }
+
+    private boolean tryAcquire() {
+        if (rateLimit == 0) {
+            return false;
+        }
+        long now = nanoTime();
+        while (true) {
+            long current = theoreticalTime.get();
+            long start = current - now < 0 ? now : current;
+            if (start - now > tolerance) {
+                return false;
+            }
+            if (theoreticalTime.compareAndSet(current, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Indicates if a request not sampled must still be logged once its response computed.
+     *
+     * @param status   The status of the response
+     * @param duration The duration of the request in milliseconds
+     * @return {@code true} if the request failed or was slow, {@code false} otherwise
+     */
+    public boolean isForced(int status, long duration) {
+        return (errorStatus >= 0 && status >= errorStatus)
+                || (slowThreshold >= 0 && duration >= slowThreshold);
+    }
+
+}
@@ -1,20 +1,26 @@
 package com.chavaillaz.jakarta.rs;
 
+import static com.chavaillaz.jakarta.rs.LoggedBody.Target.REQUEST;
+import static com.chavaillaz.jakarta.rs.LoggedBody.Target.RESPONSE;
 import static java.util.Arrays.asList;
-import static org.apache.commons.lang3.ArrayUtils.containsAny;
 import static org.apache.commons.lang3.ClassUtils.getAllInterfaces;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
+import com.chavaillaz.jakarta.rs.LoggedBody.Target;
+import com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType;
 import jakarta.ws.rs.container.ResourceInfo;
 
 /**
@@ -22,6 +28,18 @@ import jakarta.ws.rs.container.ResourceInfo;
  */
 public class LoggedUtils {
 
+    /**
+     * Annotations of the interfaces implemented by each type, resolved once for each of them.
+     */
+    private static final ClassValue<InterfacesIndex> INTERFACES_INDEX = new ClassValue<>() {
+
+        @Override
+        protected InterfacesIndex computeValue(Class<?> type) {
+            return InterfacesIndex.of(type);
+        }
+
+    };
+
     private LoggedUtils() {
         // Utility class
     }
@@ -34,32 +52,49 @@ public class LoggedUtils {
      */
     public static Set<LoggedMapping> getMergedMappings(ResourceInfo resourceInfo) {
         Set<LoggedMapping> mergedMappings = new HashSet<>();
+        Set<MappedParameter> mappedParameters = new HashSet<>();
 
         // Priority: Method annotations > Interfaces annotations > Class annotation
         Optional.ofNullable(resourceInfo.getResourceMethod().getAnnotation(LoggedMappings.class))
-                .ifPresent(mappings -> mergeMappings(mergedMappings, mappings.value()));
+                .ifPresent(mappings -> mergeMappings(mergedMappings, mappedParameters, mappings.value()));
         getAnnotationsInterfaces(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod()).stream()
                 .filter(LoggedMapping.class::isInstance)
                 .map(LoggedMapping.class::cast)
-                .forEach(mappings -> mergeMappings(mergedMappings, mappings));
+                .forEach(mapping -> mergeMappings(mergedMappings, mappedParameters, mapping));
         Optional.ofNullable(resourceInfo.getResourceClass().getAnnotation(LoggedMappings.class))
-                .ifPresent(mappings -> mergeMappings(mergedMappings, mappings.value()));
+                .ifPresent(mappings -> mergeMappings(mergedMappings, mappedParameters, mappings.value()));
 
         return mergedMappings;
     }
 
     /**
-     * Adds the given mappings to the merged mappings if they are not already present.
+     * Adds the given mappings to the merged mappings if none of their parameters is already mapped for their type.
      *
      * @param mergedMappings The set of merged mappings
      * @param mappings       The mappings to add
      */
     public static void mergeMappings(Set<LoggedMapping> mergedMappings, LoggedMapping... mappings) {
-        Arrays.stream(mappings)
-                .filter(newMapping -> mergedMappings.stream()
-                        .noneMatch(existingMapping -> newMapping.type() == existingMapping.type()
-                                && containsAny(newMapping.paramNames(), (Object[]) existingMapping.paramNames())))
-                .forEach(mergedMappings::add);
+        Set<MappedParameter> mappedParameters = new HashSet<>();
+        mergedMappings.forEach(mapping -> mappedParameters.addAll(MappedParameter.of(mapping)));
+        mergeMappings(mergedMappings, mappedParameters, mappings);
+    }
+
+    /**
+     * Adds the given mappings to the merged mappings if none of their parameters is already mapped for their type,
+     * using the index of the parameters already mapped, updated with the ones of the mappings added.
+     *
+     * @param mergedMappings   The set of merged mappings
+     * @param mappedParameters The parameters mapped by the merged mappings
+     * @param mappings         The mappings to add
+     */
+    private static void mergeMappings(Set<LoggedMapping> mergedMappings, Set<MappedParameter> mappedParameters, LoggedMapping... mappings) {
+        for (LoggedMapping mapping : mappings) {
+            List<MappedParameter> parameters = MappedParameter.of(mapping);
+            if (parameters.stream().noneMatch(mappedParameters::contains)) {
+                mappedParameters.addAll(parameters);
+                mergedMappings.add(mapping);
+            }
+        }
     }
 
     /**
@@ -116,6 +151,29 @@ public class LoggedUtils {
         }
     }
 
+    /**
+     * Finds the most specific body logging configuration for the given target (request or response).
+     * If multiple configurations are defined, the one specifically targeting the given target is returned.
+     * Otherwise, the configuration targeting both request and response is returned if present.
+     *
+     * @param resourceInfo The instance to access resource class and method
+     * @param target       The target for which to find the body logging configuration
+     * @return The most specific body logging configuration if present
+     */
+    public static Optional<LoggedBody> getBodyConfiguration(ResourceInfo resourceInfo, Target target) {
+        LoggedBody both = null;
+        for (LoggedBody logging : getAnnotation(resourceInfo, LoggedBody.class, Logged.class, Logged::value)) {
+            List<Target> targets = Arrays.asList(logging.targets());
+            if (targets.size() == 1 && targets.getFirst() == target) {
+                return Optional.of(logging);
+            }
+            if (targets.size() == 2 && targets.contains(REQUEST) && targets.contains(RESPONSE)) {
+                both = logging;
+            }
+        }
+        return Optional.ofNullable(both);
+    }
+
     /**
      * Gets the annotations from the interfaces implemented by the given type and method.
      *
@@ -124,18 +182,12 @@ public class LoggedUtils {
      * @return The set of annotations found
      */
     public static Set<Annotation> getAnnotationsInterfaces(Class<?> type, Method method) {
-        Annotation[] baseAnnotations = Optional.ofNullable(method)
-                .map(AccessibleObject::getAnnotations)
-                .orElse(type.getAnnotations());
-        Set<Annotation> annotations = new HashSet<>(asList(baseAnnotations));
-        for (Class<?> interfaceClass : getAllInterfaces(type)) {
-            for (Method interfaceMethod : interfaceClass.getMethods()) {
-                if (areMethodsEqual(interfaceMethod, method)) {
-                    annotations.addAll(asList(interfaceMethod.getAnnotations()));
-                }
-            }
-            annotations.addAll(asList(interfaceClass.getAnnotations()));
+        InterfacesIndex index = INTERFACES_INDEX.get(type);
+        Set<Annotation> annotations = new HashSet<>(asList(method != null ? method.getAnnotations() : type.getAnnotations()));
+        if (method != null) {
+            annotations.addAll(index.methodAnnotations().getOrDefault(MethodSignature.of(method), List.of()));
         }
+        annotations.addAll(index.typeAnnotations());
         return annotations;
     }
 
@@ -152,4 +204,59 @@ public class LoggedUtils {
                 && Arrays.equals(method1.getParameterTypes(), method2.getParameterTypes());
     }
 
+    /**
+     * Parameter of a given type mapped by a {@link LoggedMapping}.
+     *
+     * @param type      The type of the parameter
+     * @param paramName The name of the parameter
+     */
+    private record MappedParameter(LogMappingType type, String paramName) {
+
+        static List<MappedParameter> of(LoggedMapping mapping) {
+            return Stream.of(mapping.paramNames())
+                    .map(paramName -> new MappedParameter(mapping.type(), paramName))
+                    .toList();
+        }
+
+    }
+
+    /**
+     * Signature of a method, equal for the methods having the same name and parameter types
+     * (see {@link LoggedUtils#areMethodsEqual(Method, Method)}).
+     *
+     * @param name           The name of the method
+     * @param parameterTypes The parameter types of the method
+     */
+    private record MethodSignature(String name, List<Class<?>> parameterTypes) {
+
+        static MethodSignature of(Method method) {
+            return new MethodSignature(method.getName(), List.of(method.getParameterTypes()));
+        }
+
+    }
+
+    /**
+     * Annotations of the interfaces implemented by a type.
+     *
+     * @param methodAnnotations The annotations of the methods of the interfaces, by method signature
+     * @param typeAnnotations   The annotations of the interfaces
+     */
+    private record InterfacesIndex(Map<MethodSignature, List<Annotation>> methodAnnotations, List<Annotation> typeAnnotations) {
+
+        static InterfacesIndex of(Class<?> type) {
+            Map<MethodSignature, List<Annotation>> methodAnnotations = new HashMap<>();
+            List<Annotation> typeAnnotations = new ArrayList<>();
+            for (Class<?> interfaceClass : getAllInterfaces(type)) {
+                for (Method interfaceMethod : interfaceClass.getMethods()) {
+                    methodAnnotations.computeIfAbsent(MethodSignature.of(interfaceMethod), signature -> new ArrayList<>())
+                            .addAll(asList(interfaceMethod.getAnnotations()));
+                }
+                typeAnnotations.addAll(asList(interfaceClass.getAnnotations()));
+            }
+            methodAnnotations.replaceAll((signature, annotations) -> List.copyOf(annotations));
+            return new InterfacesIndex(Map.copyOf(methodAnnotations), List.copyOf(typeAnnotations));
+        }
+
+    }
+
 }
@@ -0,0 +1,290 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.Character.toLowerCase;
+import static java.util.Arrays.copyOf;
+import static java.util.stream.Collectors.joining;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Body filter redacting in a single scan the values of the given keys and the parts matching the given patterns,
+ * replacing them by {@link #MASK} (see {@link LoggedBody#redactedKeys()} and {@link LoggedBody#redactedPatterns()}).
+ * <ul>
+ *     <li>The keys are searched all at once, ignoring the case, with an automaton of Aho-Corasick.
+ *     The value following a key and a separator ({@code :} or {@code =}) is then redacted, for example
+ *     in {@code "password": "secret"} or {@code password=secret}.</li>
+ *     <li>The patterns are combined into a single regular expression, whose matches are redacted.</li>
+ * </ul>
+ * The body is then rebuilt only once with all the redactions, instead of one pass for each key or pattern.
+ * It can be extended with a default constructor to be used in {@link LoggedBody#filters()}.
+ */
+public class RedactionBodyFilter implements LoggedBodyFilter {
+
+    /**
+     * Text replacing the redacted values.
+     */
+    public static final String MASK = "***";
+
+    private final int[][] transitions;
+    private final int[] outputs;
+    private final int[] alphabet = new int[128];
+    private final Map<Character, Integer> extendedAlphabet = new HashMap<>();
+    private final Pattern pattern;
+
+    /**
+     * Creates a new redaction filter.
+     *
+     * @param keys     The keys whose values must be redacted
+     * @param patterns The regular expressions whose matches must be redacted
+     */
+    public RedactionBodyFilter(Collection<String> keys, Collection<String> patterns) {
+        List<String> words = keys.stream()
+                .filter(key -> !key.isEmpty())
+                .map(key -> key.toLowerCase(Locale.ROOT))
+                .toList();
+        int symbols = buildAlphabet(words);
+
+        // Trie of the keys, the state 0 being the root
+        int[][] trie = new int[1][symbols];
+        int[] lengths = new int[1];
+        int count = 1;
+        for (String word : words) {
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int symbol = getSymbol(word.charAt(i));
+                if (trie[state][symbol] == 0) {
+                    if (count == trie.length) {
+                        trie = copyOf(trie, count * 2);
+                        lengths = copyOf(lengths, count * 2);
+                    }
+                    trie[count] = new int[symbols];
+                    trie[state][symbol] = count++;
+                }
+                state = trie[state][symbol];
+            }
+            lengths[state] = Math.max(lengths[state], word.length());
+        }
+        this.transitions = copyOf(trie, count);
+        this.outputs = copyOf(lengths, count);
+        buildAutomaton(symbols);
+
+        this.pattern = patterns.isEmpty() ? null : Pattern.compile(patterns.stream()
+                .map(expression -> "(?:" + expression + ")")
+                .collect(joining("|")));
+    }
+
+    private int buildAlphabet(List<String> words) {
+        // Symbol 0 is used for all the characters not present in keys
+        int symbols = 1;
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                char character = word.charAt(i);
+                if (character < alphabet.length) {
+                    if (alphabet[character] == 0) {
+                        alphabet[character] = symbols++;
+                    }
+                } else if (!extendedAlphabet.containsKey(character)) {
+                    extendedAlphabet.put(character, symbols++);
+                }
+            }
+        }
+        return symbols;
+    }
+
+    private void buildAutomaton(int symbols) {
+        // Transforms the trie into a deterministic automaton by following the failure links in breadth-first order
+        int[] failures = new int[transitions.length];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 1; symbol < symbols; symbol++) {
+            if (transitions[0][symbol] != 0) {
+                queue.add(transitions[0][symbol]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = Math.max(outputs[state], outputs[failures[state]]);
+            for (int symbol = 1; symbol < symbols; symbol++) {
+                int next = transitions[state][symbol];
+                if (next != 0) {
+                    failures[next] = transitions[failures[state]][symbol];
+                    queue.add(next);
+                } else {
+                    transitions[state][symbol] = transitions[failures[state]][symbol];
+                }
+            }
+        }
+    }
+
+    private int getSymbol(char character) {
+        char lower = toLowerCase(character);
+        if (lower < alphabet.length) {
+            return alphabet[lower];
+        }
+        return extendedAlphabet.getOrDefault(lower, 0);
+    }
+
+    @Override
+    public void filter(StringBuilder body) {
+        int[] ranges = new int[16];
+        int size = 0;
+
+        // Values of the keys
+        if (transitions.length > 1) {
+            int state = 0;
+            for (int i = 0; i < body.length(); i++) {
+                state = transitions[state][getSymbol(body.charAt(i))];
+                int length = outputs[state];
+                if (length > 0 && isKey(body, i + 1 - length, i + 1)) {
+                    long value = findValue(body, i + 1);
+                    if (value >= 0) {
+                        if (size + 2 > ranges.length) {
+                            ranges = copyOf(ranges, ranges.length * 2);
+                        }
+                        ranges[size++] = (int) (value >>> 32);
+                        ranges[size++] = (int) value;
+                        i = (int) value - 1;
+                        state = 0;
+                    }
+                }
+            }
+        }
+
+        // Matches of the patterns
+        int keysSize = size;
+        if (pattern != null) {
+            Matcher matcher = pattern.matcher(body);
+            while (matcher.find()) {
+                if (matcher.end() > matcher.start()) {
+                    if (size + 2 > ranges.length) {
+                        ranges = copyOf(ranges, ranges.length * 2);
+                    }
+                    ranges[size++] = matcher.start();
+                    ranges[size++] = matcher.end();
+                }
+            }
+        }
+
+        if (size > 0) {
+            redact(body, ranges, keysSize, size);
+        }
+    }
+
+    /**
+     * Indicates if the key found is a complete key, not being part of a larger word.
+     *
+     * @param body  The body in which the key has been found
+     * @param start The index of the first character of the key
+     * @param end   The index following the last character of the key
+     * @return {@code true} if the key is complete, {@code false} otherwise
+     */
+    protected boolean isKey(CharSequence body, int start, int end) {
+        return (start == 0 || !isWordCharacter(body.charAt(start - 1)))
+                && (end == body.length() || !isWordCharacter(body.charAt(end)));
+    }
+
+    private static boolean isWordCharacter(char character) {
+        return Character.isLetterOrDigit(character) || character == '_' || character == '-';
+    }
+
+    /**
+     * Finds the value following a key, after an optional closing quote and a separator.
+     *
+     * @param body  The body in which the key has been found
+     * @param index The index following the last character of the key
+     * @return The start and the end of the value encoded in a long, or -1 if no value is following the key
+     */
+    protected long findValue(CharSequence body, int index) {
+        int length = body.length();
+        if (index < length && (body.charAt(index) == '"' || body.charAt(index) == '\'')) {
+            index++;
+        }
+        index = skipWhitespaces(body, index);
+        if (index >= length || (body.charAt(index) != ':' && body.charAt(index) != '=')) {
+            return -1;
+        }
+        index = skipWhitespaces(body, index + 1);
+        if (index >= length) {
+            return -1;
+        }
+
+        int start;
+        int end;
+        char quote = body.charAt(index);
+        if (quote == '"' || quote == '\'') {
+            start = index + 1;
+            end = start;
+            while (end < length && body.charAt(end) != quote) {
+                end += body.charAt(end) == '\\' ? 2 : 1;
+            }
+            end = Math.min(end, length);
+        } else if (quote == '{' || quote == '[') {
+            // Structured values are not redacted as a whole, their own keys being possibly redacted
+            return -1;
+        } else {
+            start = index;
+            end = start;
+            while (end < length && !isValueDelimiter(body.charAt(end))) {
+                end++;
+            }
+        }
+        return end > start ? ((long) start << 32) | end : -1;
+    }
+
+    private static int skipWhitespaces(CharSequence body, int index) {
+        while (index < body.length() && Character.isWhitespace(body.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isValueDelimiter(char character) {
+        return switch (character) {
+            case ',', ';', '&', '}', ']', '\r', '\n', ' ', '\t' -> true;
+            default -> false;
+        };
+    }
+
+    private static void redact(StringBuilder body, int[] ranges, int keysSize, int size) {
+        // Ranges of keys and patterns are sorted separately, and only need to be merged
+        if (keysSize > 0 && keysSize < size) {
+            long[] sorted = new long[size / 2];
+            for (int i = 0; i < size; i += 2) {
+                sorted[i / 2] = ((long) ranges[i] << 32) | ranges[i + 1];
+            }
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length; i++) {
+                ranges[2 * i] = (int) (sorted[i] >>> 32);
+                ranges[2 * i + 1] = (int) sorted[i];
+            }
+        }
+
+        StringBuilder redacted = new StringBuilder(body.length());
+        int position = 0;
+        int i = 0;
+        while (i < size) {
+            int start = ranges[i];
+            int end = ranges[i + 1];
+            i += 2;
+            // Merges the overlapping ranges
+            while (i < size && ranges[i] <= end) {
+                end = Math.max(end, ranges[i + 1]);
+                i += 2;
+            }
+            redacted.append(body, position, start).append(MASK);
+            position = end;
+        }
+        redacted.append(body, position, body.length());
+        body.setLength(0);
+        body.append(redacted);
+    }
+
+}
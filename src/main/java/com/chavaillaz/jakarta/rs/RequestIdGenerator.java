@@ -0,0 +1,100 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.lang.System.currentTimeMillis;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generator of the identifiers of requests received without identifier (see {@link LoggedFilter#getRequestId}).
+ * Standard implementations are available in {@link Standard}.
+ */
+@FunctionalInterface
+public interface RequestIdGenerator {
+
+    /**
+     * Generates a new request identifier.
+     *
+     * @return The request identifier generated
+     */
+    String generate();
+
+    /**
+     * Standard request identifier generators.
+     */
+    enum Standard implements RequestIdGenerator {
+
+        /**
+         * Random UUID (version 4) generated with {@link java.security.SecureRandom}, which may become
+         * a contention point when many requests are received concurrently (see {@link UUID#randomUUID()}).
+         */
+        SECURE_UUID {
+            @Override
+            public String generate() {
+                return UUID.randomUUID().toString();
+            }
+        },
+
+        /**
+         * Random UUID (version 4) generated with {@link ThreadLocalRandom}, without any contention between threads.
+         * Note that the identifiers generated are not cryptographically secure, and must not be used as secrets.
+         */
+        RANDOM_UUID {
+            @Override
+            public String generate() {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long mostSignificantBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+                return new UUID(mostSignificantBits, randomVariantBits(random)).toString();
+            }
+        },
+
+        /**
+         * Time-ordered UUID (version 7) made of the current time in milliseconds followed by random bits
+         * generated with {@link ThreadLocalRandom}, keeping identifiers sorted by creation time.
+         */
+        TIME_UUID {
+            @Override
+            public String generate() {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long mostSignificantBits = (currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+                return new UUID(mostSignificantBits, randomVariantBits(random)).toString();
+            }
+        },
+
+        /**
+         * Universally unique lexicographically sortable identifier (ULID), made of the current time
+         * in milliseconds followed by random bits generated with {@link ThreadLocalRandom},
+         * and encoded in 26 characters with the base 32 of Crockford.
+         */
+        ULID {
+            @Override
+            public String generate() {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long time = currentTimeMillis();
+                long high = random.nextLong() & 0xFFFFL;
+                long low = random.nextLong();
+                char[] identifier = new char[26];
+                // Random part of 80 bits, from the last character
+                for (int i = 25; i >= 10; i--) {
+                    identifier[i] = ALPHABET[(int) (low & 31)];
+                    low = (low >>> 5) | (high << 59);
+                    high >>>= 5;
+                }
+                // Time part of 48 bits
+                for (int i = 9; i >= 0; i--) {
+                    identifier[i] = ALPHABET[(int) (time & 31)];
+                    time >>>= 5;
+                }
+                return new String(identifier);
+            }
+        };
+
+        private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+        private static long randomVariantBits(ThreadLocalRandom random) {
+            return (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        }
+
+    }
+
+}
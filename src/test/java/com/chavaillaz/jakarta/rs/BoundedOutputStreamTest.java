@@ -160,4 +160,35 @@ class BoundedOutputStreamTest {
         assertEquals("ng is the process of", wrapped.toString(UTF_8));
     }
 
-}
\ No newline at end of file
+    @Test
+    void detached_ignored() throws IOException {
+        // given
+        var wrapped = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(wrapped, -1);
+        bounded.write(DATA.getBytes(UTF_8), 0, 10);
+
+        // when
+        bounded.detach();
+        bounded.write(DATA.getBytes(UTF_8), 10, 10);
+        bounded.write('a');
+
+        // then
+        assertEquals("If debuggi", wrapped.toString(UTF_8));
+    }
+
+    @Test
+    void moreThanLimit_totalBytes() throws IOException {
+        // given
+        var wrapped = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(wrapped, 10);
+
+        // when
+        bounded.write(DATA.getBytes(UTF_8), 0, 20);
+        bounded.write('a');
+
+        // then
+        assertEquals(10, wrapped.size());
+        assertEquals(21, bounded.getTotalBytes());
+    }
+
+}
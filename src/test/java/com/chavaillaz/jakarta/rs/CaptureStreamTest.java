@@ -0,0 +1,130 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.chavaillaz.jakarta.rs.JsonMaskingOutputStream.Paths;
+import org.junit.jupiter.api.Test;
+
+class CaptureStreamTest {
+
+    public static final String DATA = "If debugging is the process of removing software bugs, " +
+            "then programming must be the process of putting them in";
+
+    @Test
+    void outputMoreThanLimit_passThrough() throws IOException {
+        // given
+        var response = new ByteArrayOutputStream();
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, 10);
+        var capture = new CaptureOutputStream(response, bounded, bounded);
+
+        // when
+        capture.write(DATA.getBytes(UTF_8), 0, 5);
+        capture.write(DATA.getBytes(UTF_8), 5, 10);
+        capture.write(DATA.getBytes(UTF_8), 15, 95);
+        capture.write('!');
+
+        // then
+        assertEquals(DATA + "!", response.toString(UTF_8));
+        assertEquals("If debuggi", captured.toString(UTF_8));
+        assertEquals(111, capture.getTotalBytes());
+        assertEquals(10, bounded.getWrittenBytes());
+    }
+
+    @Test
+    void outputDetached_passThrough() throws IOException {
+        // given
+        var response = new ByteArrayOutputStream();
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, -1);
+        var capture = new CaptureOutputStream(response, bounded, bounded);
+        capture.write(DATA.getBytes(UTF_8), 0, 10);
+
+        // when
+        bounded.detach();
+        capture.write(DATA.getBytes(UTF_8), 10, 10);
+
+        // then
+        assertEquals(DATA.substring(0, 20), response.toString(UTF_8));
+        assertEquals("If debuggi", captured.toString(UTF_8));
+    }
+
+    @Test
+    void inputMoreThanLimit_passThrough() throws IOException {
+        // given
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, 10);
+        var capture = new CaptureInputStream(new ByteArrayInputStream(DATA.getBytes(UTF_8)), bounded, bounded);
+
+        // when
+        int first = capture.read();
+        byte[] rest = capture.readAllBytes();
+
+        // then
+        assertEquals(DATA, (char) first + new String(rest, UTF_8));
+        assertEquals("If debuggi", captured.toString(UTF_8));
+        assertEquals(DATA.length(), capture.getTotalBytes());
+    }
+
+    @Test
+    void inputLessThanLimit_full() throws IOException {
+        // given
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, -1);
+        var capture = new CaptureInputStream(new ByteArrayInputStream(DATA.getBytes(UTF_8)), bounded, bounded);
+
+        // when
+        capture.readAllBytes();
+
+        // then
+        assertEquals(DATA, captured.toString(UTF_8));
+        assertEquals(DATA.length(), capture.getTotalBytes());
+    }
+
+    @Test
+    void outputMaskedMoreThanLimit_rawTotal() throws IOException {
+        // given
+        var json = "{\"password\": \"" + "x".repeat(1000) + "\"}";
+        var response = new ByteArrayOutputStream();
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, 10);
+        var capture = new CaptureOutputStream(response, new JsonMaskingOutputStream(bounded, Paths.compile("$.password")), bounded);
+
+        // when
+        capture.write(json.getBytes(UTF_8));
+        capture.write(' ');
+
+        // then
+        assertEquals(json + " ", response.toString(UTF_8));
+        assertEquals("{\"password", captured.toString(UTF_8));
+        assertEquals(json.length() + 1, capture.getTotalBytes());
+        assertTrue(capture.isTruncated());
+    }
+
+    @Test
+    void inputMaskedLessThanLimit_notTruncated() throws IOException {
+        // given
+        var json = "{\"password\": \"" + "x".repeat(1000) + "\"}";
+        var captured = new ByteArrayOutputStream();
+        var bounded = new BoundedOutputStream(captured, 100);
+        var masking = new JsonMaskingOutputStream(bounded, Paths.compile("$.password"));
+        var capture = new CaptureInputStream(new ByteArrayInputStream(json.getBytes(UTF_8)), masking, bounded);
+
+        // when
+        capture.readAllBytes();
+        masking.flush();
+
+        // then
+        assertEquals("{\"password\": \"***\"}", captured.toString(UTF_8));
+        assertEquals(json.length(), capture.getTotalBytes());
+        assertFalse(capture.isTruncated());
+    }
+
+}
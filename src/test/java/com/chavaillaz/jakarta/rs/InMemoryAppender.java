@@ -4,6 +4,7 @@ import static org.apache.logging.log4j.core.layout.PatternLayout.createDefaultLa
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.logging.log4j.core.Appender;
@@ -25,7 +26,7 @@ public class InMemoryAppender extends AbstractAppender {
 
     public static final String APPENDER_NAME = "InMemoryAppender";
 
-    protected final List<LogEvent> messages = new ArrayList<>();
+    protected final List<LogEvent> messages = Collections.synchronizedList(new ArrayList<>());
 
     protected InMemoryAppender(String name, Filter filter, Layout<? extends Serializable> layout) {
         super(name, filter, layout, false, Property.EMPTY_ARRAY);
@@ -46,7 +47,8 @@ public class InMemoryAppender extends AbstractAppender {
 
     @Override
     public void append(LogEvent event) {
-        getMessages().add(event);
+        // Events can be reused by the logging framework once appended
+        getMessages().add(event.toImmutable());
     }
 
     /**
@@ -0,0 +1,127 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedField.DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_ID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class JsonEventSinkTest {
+
+    @Test
+    void accept_singleLine() {
+        // given
+        var output = new ByteArrayOutputStream();
+        var sink = new JsonEventSink(output);
+        var exchange = new LoggedExchange("1234", "POST", "users", "page=1", "UserResource", "create",
+                201, 12_345_678, 1_000_000, -1, Map.of("user-id", "42"),
+                new LoggedDeferredBody(() -> "{\"name\":\"John\"}"), null);
+
+        // when
+        sink.accept(exchange);
+
+        // then
+        assertEquals("{\"request-id\":\"1234\",\"request-method\":\"POST\",\"request-uri\":\"users\","
+                        + "\"request-parameters\":\"page=1\",\"resource-class\":\"UserResource\",\"resource-method\":\"create\","
+                        + "\"response-status\":201,\"duration\":12,\"read-duration\":1,\"mappings\":{\"user-id\":\"42\"},"
+                        + "\"request-body\":\"{\\\"name\\\":\\\"John\\\"}\"}\n",
+                output.toString(UTF_8));
+    }
+
+    @Test
+    void accept_escapedAndEncoded() {
+        // given
+        var output = new ByteArrayOutputStream();
+        var sink = new JsonEventSink(output, MICROSECONDS);
+        var body = new StringBuilder("line\n\ttab \\ \u0001 é € 😀 \uD83D");
+        var exchange = new LoggedExchange(null, "GET", "files", null, null, null,
+                500, 1_500, -1, 2_000, Map.of(), null, body);
+
+        // when
+        sink.accept(exchange);
+
+        // then
+        assertEquals("{\"request-id\":null,\"request-method\":\"GET\",\"request-uri\":\"files\","
+                        + "\"response-status\":500,\"duration\":1,\"first-byte-duration\":2,"
+                        + "\"response-body\":\"line\\n\\ttab \\\\ \\u0001 é € 😀 ?\"}\n",
+                output.toString(UTF_8));
+    }
+
+    @Test
+    void accept_bufferReused() {
+        // given
+        var output = new ByteArrayOutputStream();
+        var sink = new JsonEventSink(output);
+        var large = new LoggedExchange("1", "GET", "a", null, null, null,
+                200, 0, -1, -1, Map.of(), null, "x".repeat(100_000));
+        var small = new LoggedExchange("2", "GET", "b", null, null, null,
+                200, 0, -1, -1, Map.of(), null, null);
+
+        // when
+        sink.accept(large);
+        output.reset();
+        sink.accept(small);
+
+        // then
+        assertEquals("{\"request-id\":\"2\",\"request-method\":\"GET\",\"request-uri\":\"b\","
+                        + "\"response-status\":200,\"duration\":0}\n",
+                output.toString(UTF_8));
+    }
+
+    @Test
+    void accept_configuredFieldsAndNamespacedMappings() {
+        // given
+        var output = new ByteArrayOutputStream();
+        var sink = new JsonEventSink(output, MILLISECONDS, Map.of(REQUEST_ID.name(), "trace", DURATION.name(), "elapsed"));
+        var exchange = new LoggedExchange("1", "GET", "a", null, null, null,
+                200, 3_000_000, -1, -1, Map.of("request-id", "overwritten"), null, null);
+
+        // when
+        sink.accept(exchange);
+
+        // then
+        assertEquals("{\"trace\":\"1\",\"request-method\":\"GET\",\"request-uri\":\"a\","
+                        + "\"response-status\":200,\"elapsed\":3,\"mappings\":{\"request-id\":\"overwritten\"}}\n",
+                output.toString(UTF_8));
+    }
+
+    @Test
+    void accept_concurrentLinesNotInterleaved() throws Exception {
+        // given
+        var output = new ByteArrayOutputStream();
+        var sink = new JsonEventSink(new PrintStream(output, false, UTF_8));
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                String id = String.valueOf(i);
+                executor.submit(() -> {
+                    start.await();
+                    sink.accept(new LoggedExchange(id, "GET", "a", null, null, null,
+                            200, 0, -1, -1, Map.of(), null, "x".repeat(2_000)));
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        // then
+        List<String> lines = output.toString(UTF_8).lines().toList();
+        assertEquals(200, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{\"request-id\":") && line.endsWith("\"}")));
+    }
+
+}
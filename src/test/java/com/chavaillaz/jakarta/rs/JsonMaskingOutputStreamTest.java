@@ -0,0 +1,121 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.chavaillaz.jakarta.rs.JsonMaskingOutputStream.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JsonMaskingOutputStreamTest {
+
+    public static final String DATA = """
+            {
+                "login": "doe",
+                "password": "p@ss\\"word}",
+                "age": 42,
+                "active": true,
+                "address": { "city": "Lausanne", "iban": "CH00 1234" },
+                "cards": [
+                    { "number": "1111", "pin": 1234 },
+                    { "number": "2222", "pin": 5678, "options": [1, [2, "]"], {"iban": null}] }
+                ]
+            }""";
+
+    static String mask(String content, int chunkSize, String... paths) throws IOException {
+        var output = new ByteArrayOutputStream();
+        try (var stream = new JsonMaskingOutputStream(output, Paths.compile(paths))) {
+            byte[] bytes = content.getBytes(UTF_8);
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                if (chunkSize == 1) {
+                    stream.write(bytes[i]);
+                } else {
+                    stream.write(bytes, i, Math.min(chunkSize, bytes.length - i));
+                }
+            }
+        }
+        return output.toString(UTF_8);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 1024})
+    void write_field(int chunkSize) throws IOException {
+        // when
+        String masked = mask(DATA, chunkSize, "$.password", "$.age", "$.active");
+
+        // then
+        assertEquals(DATA
+                .replace("\"p@ss\\\"word}\"", "\"***\"")
+                .replace("42", "\"***\"")
+                .replace("true", "\"***\""), masked);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 1024})
+    void write_recursive(int chunkSize) throws IOException {
+        // when
+        String masked = mask(DATA, chunkSize, "$..iban");
+
+        // then
+        assertEquals(DATA
+                .replace("\"CH00 1234\"", "\"***\"")
+                .replace("null", "\"***\""), masked);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"$.cards[*].pin", "$.cards.*.pin", "$['cards'][*]['pin']"})
+    void write_arrayElements(String path) throws IOException {
+        // when
+        String masked = mask(DATA, 4, path);
+
+        // then
+        assertEquals(DATA
+                .replace("\"pin\": 1234", "\"pin\": \"***\"")
+                .replace("\"pin\": 5678", "\"pin\": \"***\""), masked);
+    }
+
+    @Test
+    void write_containers() throws IOException {
+        // when
+        String masked = mask(DATA, 2, "$.address", "$.cards[*].options");
+
+        // then
+        assertEquals(DATA
+                .replace("{ \"city\": \"Lausanne\", \"iban\": \"CH00 1234\" }", "\"***\"")
+                .replace("[1, [2, \"]\"], {\"iban\": null}]", "\"***\""), masked);
+    }
+
+    @Test
+    void write_root() throws IOException {
+        assertEquals("\"***\"", mask(DATA, 16, "$"));
+    }
+
+    @Test
+    void write_notMatching() throws IOException {
+        assertEquals(DATA, mask(DATA, 16, "$.unknown", "$.login.password", "$..city.name"));
+    }
+
+    @Test
+    void write_invalidDocument() throws IOException {
+        // given
+        String content = "Not a JSON } ] document, \"password\": \"secret\"";
+
+        // when
+        String masked = mask(content, 16, "$.password");
+
+        // then
+        assertEquals(content, masked);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"password", "$.", "$['password'", "$..."})
+    void compile_invalidPath(String path) {
+        assertThrows(IllegalArgumentException.class, () -> Paths.compile(path));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.jupiter.api.Test;
+
+class LoggedBodyBufferTest {
+
+    public static final String DATA = "Il était une fois, dans un pays lointain, un développeur qui écrivait des tests";
+
+    @Test
+    void write_growsBuffer() {
+        // given
+        var buffer = new LoggedBodyBuffer(4);
+
+        // when
+        buffer.write(DATA.getBytes(UTF_8), 0, 10);
+        buffer.write(DATA.getBytes(UTF_8), 10, DATA.getBytes(UTF_8).length - 10);
+
+        // then
+        assertEquals(DATA.getBytes(UTF_8).length, buffer.size());
+        assertTrue(buffer.capacity() >= buffer.size());
+        assertEquals(DATA, buffer.toString(UTF_8));
+    }
+
+    @Test
+    void write_sequential() {
+        // given
+        var buffer = new LoggedBodyBuffer(0);
+
+        // when
+        for (byte b : DATA.getBytes(UTF_8)) {
+            buffer.write(b);
+        }
+
+        // then
+        assertEquals(DATA, buffer.toString(UTF_8));
+    }
+
+    @Test
+    void asByteBuffer_readOnlyView() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        buffer.write(DATA.getBytes(UTF_8), 0, 10);
+
+        // when
+        ByteBuffer view = buffer.asByteBuffer();
+
+        // then
+        assertEquals(10, view.remaining());
+        assertEquals(ByteBuffer.wrap(DATA.getBytes(UTF_8), 0, 10), view);
+        assertThrows(ReadOnlyBufferException.class, () -> view.put((byte) 0));
+    }
+
+    @Test
+    void decode_largerThanChunk() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        var expected = DATA.repeat(100);
+        buffer.write(expected.getBytes(UTF_8), 0, expected.getBytes(UTF_8).length);
+
+        // when
+        StringBuilder decoded = buffer.decode(UTF_8);
+
+        // then
+        assertEquals(expected, decoded.toString());
+    }
+
+    @Test
+    void decode_charset() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        buffer.write(DATA.getBytes(ISO_8859_1), 0, DATA.getBytes(ISO_8859_1).length);
+
+        // when
+        StringBuilder decoded = buffer.decode(ISO_8859_1);
+
+        // then
+        assertEquals(DATA, decoded.toString());
+    }
+
+    @Test
+    void reset_keepsCapacity() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        buffer.write(DATA.getBytes(UTF_8), 0, DATA.getBytes(UTF_8).length);
+        int capacity = buffer.capacity();
+
+        // when
+        buffer.reset();
+
+        // then
+        assertTrue(buffer.isEmpty());
+        assertEquals(capacity, buffer.capacity());
+        assertEquals("", buffer.decode(UTF_8).toString());
+    }
+
+    @Test
+    void decode_truncatedMultibyte() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        var bytes = DATA.getBytes(UTF_8);
+        // Cut in the middle of the two bytes of the first accented character
+        buffer.write(bytes, 0, 4);
+        buffer.setTotalSize(bytes.length);
+
+        // when
+        String decoded = buffer.toString(UTF_8);
+
+        // then
+        assertTrue(buffer.isTruncated());
+        assertEquals(bytes.length, buffer.getTotalSize());
+        assertEquals("Il ", decoded);
+    }
+
+    @Test
+    void decode_complete() {
+        // given
+        var buffer = new LoggedBodyBuffer();
+        var bytes = DATA.getBytes(UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+        buffer.setTotalSize(bytes.length);
+
+        // when
+        StringBuilder decoded = buffer.decode(UTF_8);
+
+        // then
+        assertFalse(buffer.isTruncated());
+        assertEquals(DATA, decoded.toString());
+    }
+
+}
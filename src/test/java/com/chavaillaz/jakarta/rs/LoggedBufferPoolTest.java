@@ -0,0 +1,91 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class LoggedBufferPoolTest {
+
+    @Test
+    void acquire_emptyPool() {
+        // given
+        var pool = new LoggedBufferPool(4, 1024);
+
+        // when
+        var buffer = pool.acquire(100);
+
+        // then
+        assertEquals(100, buffer.capacity());
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    void acquire_limitAboveMaxCapacity() {
+        // given
+        var pool = new LoggedBufferPool(4, 1024);
+
+        // when
+        var buffer = pool.acquire(10_000);
+
+        // then
+        assertEquals(1024, buffer.capacity());
+    }
+
+    @Test
+    void release_reusedEmpty() {
+        // given
+        var pool = new LoggedBufferPool(4, 1024);
+        var buffer = pool.acquire(-1);
+        buffer.write("content".getBytes(UTF_8), 0, 7);
+
+        // when
+        pool.release(buffer);
+        var reused = pool.acquire(-1);
+
+        // then
+        assertSame(buffer, reused);
+        assertTrue(reused.isEmpty());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    void release_tooLarge() {
+        // given
+        var pool = new LoggedBufferPool(4, 1024);
+        var buffer = pool.acquire(-1);
+        buffer.write(new byte[2048], 0, 2048);
+
+        // when
+        pool.release(buffer);
+
+        // then
+        assertEquals(1, pool.getDiscards());
+        assertNotSame(buffer, pool.acquire(-1));
+    }
+
+    @Test
+    void release_virtualThreads() throws Exception {
+        // given
+        var pool = new LoggedBufferPool(4, 1024);
+
+        // when
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                executor.submit(() -> pool.release(pool.acquire(-1))).get();
+            }
+        }
+
+        // then
+        assertEquals(100, pool.getHits() + pool.getMisses());
+        assertTrue(pool.getHits() > 0);
+    }
+
+}
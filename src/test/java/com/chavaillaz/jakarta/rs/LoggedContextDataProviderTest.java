@@ -0,0 +1,56 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.logging.log4j.util.StringMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LoggedContextDataProviderTest {
+
+    LoggedContextDataProvider provider = new LoggedContextDataProvider();
+
+    @AfterEach
+    void uninstallContext() {
+        LoggedContext.uninstall();
+    }
+
+    @Test
+    void supplyStringMap_emptyWithoutFields() {
+        // given
+        StringMap withoutContext = provider.supplyStringMap();
+        new LoggedContext(0).install();
+
+        // when
+        StringMap withoutFields = provider.supplyStringMap();
+
+        // then
+        assertTrue(withoutContext.isEmpty());
+        assertSame(withoutContext, withoutFields);
+    }
+
+    @Test
+    void supplyStringMap_sharedUntilFieldsChange() {
+        // given
+        LoggedContext context = new LoggedContext(0);
+        context.put("request-id", "1234");
+        context.install();
+
+        // when
+        StringMap first = provider.supplyStringMap();
+        StringMap second = provider.supplyStringMap();
+        context.put("response-status", "200");
+        StringMap changed = provider.supplyStringMap();
+
+        // then
+        assertSame(first, second);
+        assertTrue(first.isFrozen());
+        assertEquals("1234", first.getValue("request-id"));
+        assertNotSame(first, changed);
+        assertEquals("200", changed.getValue("response-status"));
+    }
+
+}
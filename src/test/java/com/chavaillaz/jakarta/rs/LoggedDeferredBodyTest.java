@@ -0,0 +1,78 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class LoggedDeferredBodyTest {
+
+    @Test
+    void toString_computedOnceWithConcurrentReads() throws Exception {
+        // given
+        AtomicInteger computations = new AtomicInteger();
+        LoggedDeferredBody body = new LoggedDeferredBody(() -> {
+            computations.incrementAndGet();
+            return "content";
+        });
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<String> values;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<String>> futures = IntStream.range(0, 64)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return body.subSequence(0, body.length()).toString();
+                    }))
+                    .toList();
+            start.countDown();
+            values = futures.stream().map(future -> {
+                try {
+                    return future.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+
+        // then
+        assertEquals(1, computations.get());
+        assertTrue(values.stream().allMatch("content"::equals));
+        assertTrue(body.isResolved());
+        assertSame(body.toString(), body.toString());
+    }
+
+    @Test
+    void discard_notComputed() {
+        // given
+        AtomicInteger computations = new AtomicInteger();
+        AtomicInteger discards = new AtomicInteger();
+        LoggedDeferredBody body = new LoggedDeferredBody(() -> {
+            computations.incrementAndGet();
+            return "content";
+        }, discards::incrementAndGet);
+        assertFalse(body.isResolved());
+
+        // when
+        body.discard();
+        body.discard();
+
+        // then
+        assertEquals(0, body.length());
+        assertEquals(0, computations.get());
+        assertEquals(1, discards.get());
+        assertTrue(body.isResolved());
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.chavaillaz.jakarta.rs.LoggedEmitter.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class LoggedEmitterTest {
+
+    @Test
+    void emit_writtenWithContext() {
+        // given
+        AtomicReference<String> context = new AtomicReference<>();
+        AtomicReference<String> body = new AtomicReference<>();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        LoggedDeferredBody deferredBody = new LoggedDeferredBody(() -> "content");
+        LoggedEvent event = new LoggedEvent(Map.of("request-id", "1234"), Map.of("request-body", deferredBody), () -> {
+            context.set(MDC.get("request-id"));
+            body.set(MDC.get("request-body"));
+            thread.set(Thread.currentThread());
+        });
+
+        // when
+        try (var emitter = LoggedEmitter.of(8)) {
+            assertTrue(emitter.emit(event));
+        }
+
+        // then
+        assertEquals("1234", context.get());
+        assertEquals("content", body.get());
+        assertNotEquals(Thread.currentThread(), thread.get());
+        assertTrue(deferredBody.isResolved());
+    }
+
+    @Test
+    void emit_dropWhenFull() throws Exception {
+        // given
+        var blocking = new BlockingEvents();
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        // when
+        try (var emitter = LoggedEmitter.of(2, OverflowPolicy.DROP, 1)) {
+            blocking.blockConsumer(emitter);
+            for (int i = 0; i < 5; i++) {
+                int index = i;
+                emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> written.add(index)));
+            }
+            blocking.release();
+            assertEquals(3, emitter.getDropped());
+        }
+
+        // then
+        assertEquals(List.of(0, 1), written);
+    }
+
+    @Test
+    void emit_sampleWhenHalfFull() throws Exception {
+        // given
+        var blocking = new BlockingEvents();
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        // when
+        try (var emitter = LoggedEmitter.of(8, OverflowPolicy.SAMPLE, 2)) {
+            blocking.blockConsumer(emitter);
+            for (int i = 0; i < 10; i++) {
+                int index = i;
+                emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> written.add(index)));
+            }
+            blocking.release();
+            assertEquals(3, emitter.getDropped());
+        }
+
+        // then
+        assertEquals(List.of(0, 1, 2, 3, 4, 6, 8), written);
+    }
+
+    @Test
+    void emit_blockWhenFull() throws Exception {
+        // given
+        var blocking = new BlockingEvents();
+        List<Integer> written = new CopyOnWriteArrayList<>();
+
+        // when
+        try (var emitter = LoggedEmitter.of(2, OverflowPolicy.BLOCK, 1);
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            blocking.blockConsumer(emitter);
+            Future<?> producer = executor.submit(() -> {
+                for (int i = 0; i < 5; i++) {
+                    int index = i;
+                    emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> written.add(index)));
+                }
+            });
+            Thread.sleep(50);
+            assertFalse(producer.isDone());
+            blocking.release();
+            producer.get(5, TimeUnit.SECONDS);
+            assertEquals(0, emitter.getDropped());
+        }
+
+        // then
+        assertEquals(List.of(0, 1, 2, 3, 4), written);
+    }
+
+    @Test
+    void emit_failureCounted() {
+        // given
+        var emitter = LoggedEmitter.of(4);
+
+        // when
+        emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> {
+            throw new IllegalStateException("Appender failure");
+        }));
+        emitter.close();
+
+        // then
+        assertEquals(1, emitter.getEmitted());
+        assertEquals(1, emitter.getFailed());
+    }
+
+    @Test
+    void emit_afterClose() {
+        // given
+        var emitter = LoggedEmitter.of(4);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        emitter.close();
+
+        // when
+        emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> thread.set(Thread.currentThread())));
+
+        // then
+        assertEquals(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    void emit_closedConcurrently() {
+        // given
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        var emitter = new LoggedEmitter(4, OverflowPolicy.DROP, 1) {
+            @Override
+            protected boolean offer(LoggedEvent event) {
+                // Closed after the check of the emitting thread and before its event is added
+                close();
+                return super.offer(event);
+            }
+        };
+        emitter.start();
+
+        // when
+        boolean emitted = emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> thread.set(Thread.currentThread())));
+
+        // then
+        assertTrue(emitted);
+        assertEquals(Thread.currentThread(), thread.get());
+        assertEquals(0, emitter.size());
+    }
+
+    @Test
+    void start_alreadyStarted() {
+        try (var emitter = LoggedEmitter.of(4)) {
+            // when / then
+            assertThrows(IllegalStateException.class, emitter::start);
+        }
+    }
+
+    /**
+     * Blocks the consumer of an emitter in the writing of an event until being released.
+     */
+    static class BlockingEvents {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        void blockConsumer(LoggedEmitter emitter) throws InterruptedException {
+            emitter.emit(new LoggedEvent(Map.of(), Map.of(), () -> {
+                started.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            started.await();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.chavaillaz.jakarta.rs;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@DisplayName("Feature")
+@ExtendWith(MockitoExtension.class)
+class LoggedFeatureTest {
+
+    @Mock
+    ResourceInfo resourceInfo;
+
+    @Mock
+    FeatureContext featureContext;
+
+    LoggedFeature loggedFeature = new LoggedFeature();
+
+    void setupTest(Class<?> type, String method) throws Exception {
+        doReturn(type).when(resourceInfo).getResourceClass();
+        Method resourceMethod = type.getDeclaredMethod(method);
+        doReturn(resourceMethod).when(resourceInfo).getResourceMethod();
+    }
+
+    @Test
+    @DisplayName("Check filter bound to the logging plan is registered")
+    void checkFilterRegistered() throws Exception {
+        // Given
+        setupTest(AnnotatedResource.class, "bodyAsMdc");
+
+        // When
+        loggedFeature.configure(resourceInfo, featureContext);
+
+        // Then
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(featureContext).register(captor.capture());
+        LoggedPlan plan = ((LoggedFilter) captor.getValue()).getPlan();
+        assertEquals("bodyAsMdc", plan.resourceMethod());
+        assertEquals(Set.of(LogType.MDC), plan.request().logging());
+        assertEquals(SensitiveBodyFilter.class, plan.request().filters().iterator().next().getClass());
+    }
+
+    @Test
+    @DisplayName("Check filter created by the given factory is registered")
+    void checkFilterFactory() throws Exception {
+        // Given
+        setupTest(AnnotatedResource.class, "bodyAsMdc");
+        LoggedFeature configuredFeature = new LoggedFeature(() -> {
+            LoggedFilter filter = new LoggedFilter();
+            filter.setDurationUnit(MICROSECONDS);
+            return filter;
+        });
+
+        // When
+        configuredFeature.configure(resourceInfo, featureContext);
+
+        // Then
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(featureContext).register(captor.capture());
+        LoggedFilter filter = (LoggedFilter) captor.getValue();
+        assertEquals(MICROSECONDS, filter.durationUnit);
+        assertEquals("bodyAsMdc", filter.getPlan().resourceMethod());
+    }
+
+    @Test
+    @DisplayName("Check filter is not registered without annotation")
+    void checkFilterNotRegistered() throws Exception {
+        // Given
+        setupTest(NotAnnotatedResource.class, "notLogged");
+
+        // When
+        loggedFeature.configure(resourceInfo, featureContext);
+
+        // Then
+        verify(featureContext, never()).register(any(Object.class));
+    }
+
+    @Test
+    @DisplayName("Check deployment fails with invalid body filter")
+    void checkInvalidBodyFilter() throws Exception {
+        // Given
+        setupTest(AnnotatedResource.class, "invalidFilter");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> loggedFeature.configure(resourceInfo, featureContext));
+    }
+
+    @Logged
+    interface AnnotatedResource {
+
+        @LoggedBody(value = LogType.MDC, filters = SensitiveBodyFilter.class)
+        void bodyAsMdc();
+
+        @LoggedBody(value = LogType.LOG, filters = InvalidBodyFilter.class)
+        void invalidFilter();
+
+    }
+
+    interface NotAnnotatedResource {
+
+        void notLogged();
+
+    }
+
+    static class InvalidBodyFilter implements LoggedBodyFilter {
+
+        InvalidBodyFilter(String missingParameter) {
+            // No default constructor available
+        }
+
+        @Override
+        public void filter(StringBuilder body) {
+            // Nothing to filter
+        }
+
+    }
+
+}
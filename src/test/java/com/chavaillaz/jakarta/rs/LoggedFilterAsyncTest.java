@@ -0,0 +1,257 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_ID;
+import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_URI;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_METHOD;
+import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_STATUS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
+import com.chavaillaz.jakarta.rs.LoggedContext.Storage;
+import com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import org.apache.logging.log4j.core.LogEvent;
+import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.core.SynchronousExecutionContext;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+@DisplayName("Asynchronous filter")
+class LoggedFilterAsyncTest extends AbstractFilterTest {
+
+    static final Logger log = LoggerFactory.getLogger(LoggedFilterAsyncTest.class);
+    static final String TENANT_HEADER = "X-Tenant";
+    static final String TENANT_FIELD = "tenant";
+    static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    static final Executor delayedExecutor = CompletableFuture.delayedExecutor(20, MILLISECONDS, executor);
+
+    @AfterEach
+    void uninstallContext() {
+        LoggedContext.uninstall();
+    }
+
+    @AfterAll
+    static void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest(name = "{0} with {1}")
+    @CsvSource({"suspended, MDC", "stage, MDC", "suspended, STRUCTURED", "stage, STRUCTURED"})
+    @DisplayName("Check MDC is restored when the response is processed by a virtual thread")
+    void checkAsyncResponse(String method, Storage storage) throws Exception {
+        // Given
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getRegistry().addPerRequestResource(AsyncResource.class);
+        LoggedFilter filter = new LoggedFilter();
+        filter.setContextStorage(storage);
+        dispatcher.getProviderFactory().register(filter);
+        MockHttpRequest request = MockHttpRequest.get("/async/" + method)
+                .header(LoggedFilter.REQUEST_ID_HEADER, "async-id")
+                .header(TENANT_HEADER, "acme");
+        MockHttpResponse response = new MockHttpResponse();
+        request.setAsynchronousContext(new SynchronousExecutionContext((SynchronousDispatcher) dispatcher, request, response));
+
+        // When
+        dispatcher.invoke(request, response);
+        LogEvent logProcessed = awaitMessage("Processed");
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("done", response.getContentAsString());
+        assertEquals("async-id", getMdcLogged(logProcessed, REQUEST_ID));
+        assertEquals("/async/" + method, getMdcLogged(logProcessed, REQUEST_URI));
+        assertEquals(method, getMdcLogged(logProcessed, RESOURCE_METHOD));
+        assertEquals("200", getMdcLogged(logProcessed, RESPONSE_STATUS));
+        assertEquals("acme", logProcessed.getContextData().getValue(TENANT_FIELD));
+        assertEquals("async-id", getMdcLogged(listAppender.findFirstMessage("Received"), REQUEST_ID));
+
+        // When
+        MockHttpResponse nextResponse = new MockHttpResponse();
+        dispatcher.invoke(MockHttpRequest.get("/async/sync"), nextResponse);
+        log.info("Next request processed");
+
+        // Then
+        assertEquals(200, nextResponse.getStatus());
+        assertNull(MDC.get(REQUEST_ID.getDefaultField()));
+        assertNull(MDC.get(TENANT_FIELD));
+        LogEvent logNext = listAppender.findFirstMessage("Next request processed");
+        assertNull(getMdcLogged(logNext, REQUEST_ID));
+        assertNull(logNext.getContextData().getValue(TENANT_FIELD));
+    }
+
+    @Test
+    @DisplayName("Check fields of the request are no longer supplied to the receiving thread once the response logged")
+    void checkAsyncResponseStructuredLeak() throws Exception {
+        // Given
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getRegistry().addPerRequestResource(AsyncResource.class);
+        LoggedFilter filter = new LoggedFilter();
+        filter.setContextStorage(Storage.STRUCTURED);
+        dispatcher.getProviderFactory().register(filter);
+        MockHttpRequest request = MockHttpRequest.get("/async/suspended").header(LoggedFilter.REQUEST_ID_HEADER, "async-id");
+        MockHttpResponse response = new MockHttpResponse();
+        request.setAsynchronousContext(new SynchronousExecutionContext((SynchronousDispatcher) dispatcher, request, response));
+
+        // When
+        dispatcher.invoke(request, response);
+        awaitMessage("Processed");
+        log.info("Request suspended");
+
+        // Then
+        assertNull(getMdcLogged(listAppender.findFirstMessage("Request suspended"), REQUEST_ID));
+        assertNull(MDC.get(REQUEST_ID.getDefaultField()));
+    }
+
+    @Test
+    @DisplayName("Check fields added by children classes are restored when the response is processed by a virtual thread")
+    void checkAsyncResponseCustomFields() throws Exception {
+        // Given
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getRegistry().addPerRequestResource(AsyncResource.class);
+        dispatcher.getProviderFactory().register(new UserLoggedFilter());
+        MockHttpRequest request = MockHttpRequest.get("/async/suspended")
+                .header("X-Case-ID", "case-id")
+                .header("User-Agent", "Opera");
+        MockHttpResponse response = new MockHttpResponse();
+        request.setAsynchronousContext(new SynchronousExecutionContext((SynchronousDispatcher) dispatcher, request, response));
+
+        // When
+        dispatcher.invoke(request, response);
+        LogEvent logProcessed = awaitMessage("Processed");
+
+        // Then
+        assertEquals("case-id", logProcessed.getContextData().getValue(UserLoggedFilter.REQUEST_IDENTIFIER));
+        assertEquals("Doe", logProcessed.getContextData().getValue(UserLoggedFilter.USER_ID));
+        assertEquals("Opera", logProcessed.getContextData().getValue(UserLoggedFilter.USER_AGENT));
+
+        // When
+        dispatcher.invoke(MockHttpRequest.get("/async/sync"), new MockHttpResponse());
+
+        // Then
+        assertNull(MDC.get(UserLoggedFilter.REQUEST_IDENTIFIER));
+        assertNull(MDC.get(UserLoggedFilter.USER_ID));
+        assertNull(MDC.get(UserLoggedFilter.USER_AGENT));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @EnumSource(Storage.class)
+    @DisplayName("Check fields are removed from the thread when the response has no entity")
+    void checkNoContentCleanup(Storage storage) throws Exception {
+        // Given
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getRegistry().addPerRequestResource(AsyncResource.class);
+        LoggedFilter filter = new LoggedFilter();
+        filter.setContextStorage(storage);
+        dispatcher.getProviderFactory().register(filter);
+        MockHttpResponse response = new MockHttpResponse();
+
+        // When
+        dispatcher.invoke(MockHttpRequest.get("/async/empty").header(LoggedFilter.REQUEST_ID_HEADER, "empty-id"), response);
+        log.info("Empty request processed");
+
+        // Then
+        assertEquals(204, response.getStatus());
+        assertNull(MDC.get(REQUEST_ID.getDefaultField()));
+        assertNull(LoggedContext.current());
+        assertNull(getMdcLogged(listAppender.findFirstMessage("Empty request processed"), REQUEST_ID));
+    }
+
+    @Test
+    @DisplayName("Check requests are logged once when the filter is registered both as provider and by the feature")
+    void checkProviderAndFeature() throws Exception {
+        // Given
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        // Features are applied when the resources are added
+        dispatcher.getProviderFactory().register(new LoggedFilter());
+        dispatcher.getProviderFactory().register(new LoggedFeature(UserLoggedFilter::new));
+        dispatcher.getRegistry().addPerRequestResource(AsyncResource.class);
+        MockHttpResponse response = new MockHttpResponse();
+
+        // When
+        dispatcher.invoke(MockHttpRequest.get("/async/sync"), response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(1, listAppender.getMessages().stream()
+                .filter(event -> event.getMessage().getFormattedMessage().startsWith("Processed"))
+                .count());
+    }
+
+    LogEvent awaitMessage(String message) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            LogEvent event = listAppender.findFirstMessage(message);
+            if (event != null) {
+                return event;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No log found containing " + message);
+    }
+
+    String getMdcLogged(LogEvent event, LoggedField field) {
+        assertNotNull(event);
+        Object value = event.getContextData().getValue(field.getDefaultField());
+        return value != null ? value.toString() : null;
+    }
+
+    @Path("/async")
+    @LoggedMappings(@LoggedMapping(type = LogMappingType.HEADER, mdcKey = TENANT_FIELD, paramNames = TENANT_HEADER))
+    public static class AsyncResource {
+
+        @GET
+        @Path("sync")
+        @Logged
+        @UserLogged
+        public String sync() {
+            return "done";
+        }
+
+        @GET
+        @Path("empty")
+        @Logged
+        public void empty() {
+            // No content
+        }
+
+        @GET
+        @Path("suspended")
+        @Logged(@LoggedBody(LogType.LOG))
+        @UserLogged(userAgent = true)
+        public void suspended(@Suspended AsyncResponse response) {
+            delayedExecutor.execute(() -> response.resume("done"));
+        }
+
+        @GET
+        @Path("stage")
+        @Logged(@LoggedBody(LogType.LOG))
+        public CompletionStage<String> stage() {
+            return CompletableFuture.supplyAsync(() -> "done", delayedExecutor);
+        }
+
+    }
+
+}
@@ -3,6 +3,8 @@ package com.chavaillaz.jakarta.rs;
 import static com.chavaillaz.jakarta.rs.LoggedBody.Target.REQUEST;
 import static com.chavaillaz.jakarta.rs.LoggedBody.Target.RESPONSE;
 import static com.chavaillaz.jakarta.rs.LoggedField.DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.FIRST_BYTE_DURATION;
+import static com.chavaillaz.jakarta.rs.LoggedField.READ_DURATION;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_BODY;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_ID;
 import static com.chavaillaz.jakarta.rs.LoggedField.REQUEST_METHOD;
@@ -12,40 +14,71 @@ import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_CLASS;
 import static com.chavaillaz.jakarta.rs.LoggedField.RESOURCE_METHOD;
 import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_BODY;
 import static com.chavaillaz.jakarta.rs.LoggedField.RESPONSE_STATUS;
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.HEADER;
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.QUERY;
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM_TYPE;
 import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
 import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.isA;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import com.chavaillaz.jakarta.rs.LoggedBody.LogType;
+import com.chavaillaz.jakarta.rs.LoggedContext.Storage;
+import com.chavaillaz.jakarta.rs.LoggedFilter.ParametersFormat;
+import com.chavaillaz.jakarta.rs.LoggedMetrics.Phase;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.ext.ReaderInterceptorContext;
 import jakarta.ws.rs.ext.WriterInterceptorContext;
 import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configurator;
 import org.jboss.resteasy.core.Headers;
 import org.jboss.resteasy.core.interception.jaxrs.ContainerResponseContextImpl;
 import org.jboss.resteasy.core.interception.jaxrs.PreMatchContainerRequestContext;
@@ -53,9 +86,12 @@ import org.jboss.resteasy.mock.MockHttpRequest;
 import org.jboss.resteasy.mock.MockHttpResponse;
 import org.jboss.resteasy.specimpl.BuiltResponse;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -134,6 +170,17 @@ class LoggedFilterTest extends AbstractFilterTest {
     @MethodSource("arguments")
     @DisplayName("Check filter actions based on annotation")
     void checkFilterAction(Class<?> type, String method, LogType[] expectedRequestLogging, LogType[] expectedResponseLogging, Class<? extends LoggedBodyFilter>[] expectedBodyFilters) throws Exception {
+        checkFilterAction(type, method, expectedRequestLogging, expectedResponseLogging, expectedBodyFilters, null);
+    }
+
+    @ParameterizedTest(name = "{1}")
+    @MethodSource("arguments")
+    @DisplayName("Check filter actions based on annotation with logs written asynchronously")
+    void checkFilterActionAsync(Class<?> type, String method, LogType[] expectedRequestLogging, LogType[] expectedResponseLogging, Class<? extends LoggedBodyFilter>[] expectedBodyFilters) throws Exception {
+        checkFilterAction(type, method, expectedRequestLogging, expectedResponseLogging, expectedBodyFilters, LoggedEmitter.of(16));
+    }
+
+    void checkFilterAction(Class<?> type, String method, LogType[] expectedRequestLogging, LogType[] expectedResponseLogging, Class<? extends LoggedBodyFilter>[] expectedBodyFilters, LoggedEmitter emitter) throws Exception {
         setupTest(type, method);
 
         // Given
@@ -189,15 +236,16 @@ class LoggedFilterTest extends AbstractFilterTest {
             }).when(responseInterceptorContext).setProperty(any(), any());
         }
 
-        Map<String, Object> contextProperty = new HashMap<>();
         lenient().doAnswer(invocation ->
-                contextProperty.get(invocation.getArgument(0, String.class))
+                properties.get(invocation.getArgument(0, String.class))
         ).when(containerRequestContext).getProperty(any());
         lenient().doAnswer(invocation -> {
-            contextProperty.put(invocation.getArgument(0, String.class), invocation.getArgument(1, Object.class));
+            properties.put(invocation.getArgument(0, String.class), invocation.getArgument(1, Object.class));
             return null;
         }).when(containerRequestContext).setProperty(any(), any());
 
+        loggingFilter.setEmitter(emitter);
+
         // When
         loggingFilter.filter(requestContext);
         loggingFilter.aroundReadFrom(requestInterceptorContext);
@@ -213,6 +261,10 @@ class LoggedFilterTest extends AbstractFilterTest {
         // When
         loggingFilter.filter(requestContext, responseContext);
         loggingFilter.aroundWriteTo(responseInterceptorContext);
+        if (emitter != null) {
+            // Waits for the logs to be written
+            emitter.close();
+        }
 
         // Then
         assertNotNull(getMdcLogged(REQUEST_ID));
@@ -227,6 +279,607 @@ class LoggedFilterTest extends AbstractFilterTest {
         checkResponseLogging(expectedResponseLogging, expectedBodyFilters);
     }
 
+    @Test
+    @DisplayName("Check logging plan is resolved once for each resource method")
+    void checkPlanCache() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMix");
+
+        // When
+        LoggedPlan plan = loggingFilter.getPlan();
+
+        // Then
+        assertSame(plan, loggingFilter.getPlan());
+        assertEquals(AnnotatedResource.class.getSimpleName(), plan.resourceClass());
+        assertEquals("bodyAsMix", plan.resourceMethod());
+        assertEquals(Set.of(LogType.MDC), plan.request().logging());
+        assertEquals(Set.of(LogType.LOG), plan.response().logging());
+    }
+
+    @Test
+    @DisplayName("Check logging plan and body filters are resolved once under concurrent requests")
+    void checkPlanCacheConcurrency() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcAndLogWithFilter");
+
+        // Given
+        int threads = 16;
+        int requests = threads * 20;
+        List<PreMatchContainerRequestContext> requestContexts = new ArrayList<>();
+        List<ReaderInterceptorContext> requestInterceptorContexts = new ArrayList<>();
+        List<WriterInterceptorContext> responseInterceptorContexts = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            PreMatchContainerRequestContext requestContext = getRequestContext();
+            requestContext.getHeaders().putSingle(LoggedFilter.REQUEST_ID_HEADER, "request-" + i);
+            requestContexts.add(requestContext);
+            requestInterceptorContexts.add(getRequestInterceptorContext(requestContext));
+            responseInterceptorContexts.add(getResponseInterceptorContext(requestContext));
+        }
+
+        // Injected request context resolved for the thread processing the request, as done by the runtime
+        ThreadLocal<PreMatchContainerRequestContext> currentRequest = new ThreadLocal<>();
+        lenient().doAnswer(invocation ->
+                currentRequest.get().getProperty(invocation.getArgument(0, String.class))
+        ).when(containerRequestContext).getProperty(any());
+        lenient().doAnswer(invocation -> {
+            currentRequest.get().setProperty(invocation.getArgument(0, String.class), invocation.getArgument(1, Object.class));
+            return null;
+        }).when(containerRequestContext).setProperty(any(), any());
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = IntStream.range(0, requests)
+                .<Callable<Void>>mapToObj(i -> () -> {
+                    start.await();
+                    PreMatchContainerRequestContext requestContext = requestContexts.get(i);
+                    currentRequest.set(requestContext);
+                    try {
+                        loggingFilter.filter(requestContext);
+                        loggingFilter.aroundReadFrom(requestInterceptorContexts.get(i));
+                        loggingFilter.filter(requestContext, getResponseContext(requestContext));
+                        loggingFilter.aroundWriteTo(responseInterceptorContexts.get(i));
+                    } finally {
+                        currentRequest.remove();
+                    }
+                    return null;
+                })
+                .toList();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<Void>> futures = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        }
+
+        // Then
+        LoggedBodyFilter filter = loggingFilter.getBodyFiltersInstance(SensitiveBodyFilter.class);
+        assertNotNull(filter);
+        assertEquals(1, loggingFilter.filtersCache.size());
+        assertEquals(1, loggingFilter.plansCache.get(AnnotatedResource.class).size());
+        assertSame(filter, loggingFilter.getPlan().request().filters().iterator().next());
+        assertSame(filter, loggingFilter.getPlan().response().filters().iterator().next());
+
+        List<LogEvent> logsProcessed = listAppender.getMessages().stream()
+                .filter(log -> log.getMessage().getFormattedMessage().startsWith("Processed"))
+                .toList();
+        assertEquals(requests, logsProcessed.size());
+        assertEquals(requests, logsProcessed.stream()
+                .map(log -> log.getContextData().getValue(getMdcField(REQUEST_ID)))
+                .distinct()
+                .count());
+        for (LogEvent logProcessed : logsProcessed) {
+            assertTrue(logProcessed.getMessage().getFormattedMessage().contains(OUTPUT_FILTERED));
+            assertEquals(INPUT_FILTERED, logProcessed.getContextData().getValue(getMdcField(REQUEST_BODY)));
+            assertEquals(OUTPUT_FILTERED, logProcessed.getContextData().getValue(getMdcField(RESPONSE_BODY)));
+        }
+    }
+
+    @Test
+    @DisplayName("Check truncated body is decoded with its charset and marked")
+    void checkTruncatedBody() {
+        // Given
+        LoggedBodyBuffer buffer = new LoggedBodyBuffer();
+        byte[] body = "{ \"content\": \"Déjà vu\" }".getBytes(ISO_8859_1);
+        buffer.write(body, 0, 18);
+        buffer.setTotalSize(body.length);
+        Charset charset = loggingFilter.getCharset(MediaType.valueOf("application/json; charset=ISO-8859-1"));
+
+        // When
+        CharSequence filtered = loggingFilter.getBodyFiltered(buffer, charset, Set.of());
+
+        // Then
+        assertEquals(ISO_8859_1, charset);
+        assertEquals("{ \"content\": \"Déjà... [truncated, 18 of 24 bytes]", filtered.toString());
+    }
+
+    @Test
+    @DisplayName("Check body is not captured when logs are disabled")
+    void checkLogDisabled() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcAndLog");
+
+        // Given
+        ReaderInterceptorContext requestInterceptorContext = mock(ReaderInterceptorContext.class);
+        Level level = LogManager.getLogger(LoggedFilter.class).getLevel();
+        Configurator.setLevel(LoggedFilter.class.getName(), Level.WARN);
+
+        // When
+        try {
+            loggingFilter.aroundReadFrom(requestInterceptorContext);
+        } finally {
+            Configurator.setLevel(LoggedFilter.class.getName(), level);
+        }
+
+        // Then
+        verify(requestInterceptorContext).proceed();
+        verify(requestInterceptorContext, never()).setInputStream(any());
+        assertTrue(listAppender.getMessages().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check body filters are only applied when the body is used")
+    void checkDeferredBody() {
+        // Given
+        LoggedBodyFilter filter = mock(LoggedBodyFilter.class);
+        LoggedBodyBuffer buffer = new LoggedBodyBuffer();
+        buffer.write(INPUT.getBytes(UTF_8), 0, INPUT.getBytes(UTF_8).length);
+
+        // When
+        CharSequence body = loggingFilter.getBody(buffer, UTF_8, Set.of(filter));
+
+        // Then
+        verifyNoInteractions(filter);
+        assertEquals(INPUT, body.toString());
+        assertEquals(INPUT, body.toString());
+        verify(filter).filter(any());
+    }
+
+    @Test
+    @DisplayName("Check fields are masked while capturing JSON bodies only")
+    void checkMaskedPaths() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcWithMasking");
+
+        // Given
+        LoggedPlan.Body configuration = loggingFilter.getPlan().request();
+        ByteArrayOutputStream jsonCapture = new ByteArrayOutputStream();
+        ByteArrayOutputStream textCapture = new ByteArrayOutputStream();
+
+        // When
+        try (OutputStream json = loggingFilter.getCaptureStream(jsonCapture, configuration, MediaType.APPLICATION_JSON_TYPE);
+             OutputStream text = loggingFilter.getCaptureStream(textCapture, configuration, TEXT_PLAIN_TYPE)) {
+            json.write(INPUT.getBytes(UTF_8));
+            text.write(INPUT.getBytes(UTF_8));
+        }
+
+        // Then
+        assertEquals(INPUT.replace("\"1234-ABCD\"", JsonMaskingOutputStream.MASK), jsonCapture.toString(UTF_8));
+        assertEquals(INPUT, textCapture.toString(UTF_8));
+    }
+
+    @Test
+    @DisplayName("Check keys and patterns are redacted before the other filters")
+    void checkRedaction() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcWithRedaction");
+
+        // Given
+        LoggedBodyBuffer buffer = new LoggedBodyBuffer();
+        buffer.write(INPUT.getBytes(UTF_8), 0, INPUT.getBytes(UTF_8).length);
+
+        // When
+        Set<LoggedBodyFilter> filters = loggingFilter.getPlan().request().filters();
+        CharSequence body = loggingFilter.getBodyFiltered(buffer, UTF_8, filters);
+
+        // Then
+        assertEquals(List.of(RedactionBodyFilter.class, SensitiveBodyFilter.class),
+                filters.stream().map(Object::getClass).toList());
+        assertEquals(INPUT.replace("My Article", "***").replace("1234-ABCD", "***"), body.toString());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"200, false", "503, true"})
+    @DisplayName("Check requests not sampled are not captured and only logged when failed")
+    void checkSampling(int status, boolean expectedLogging) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLogSampled");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext, status);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        verify(requestInterceptorContext).proceed();
+        verify(requestInterceptorContext, never()).setInputStream(any());
+        assertNull(listAppender.findFirstMessage("Received"));
+        LogEvent logProcessed = listAppender.findFirstMessage("Processed");
+        assertEquals(expectedLogging, logProcessed != null);
+        if (expectedLogging) {
+            assertTrue(logProcessed.getMessage().getFormattedMessage().contains(OUTPUT));
+        } else {
+            verify(responseInterceptorContext, never()).setOutputStream(any());
+        }
+        assertNull(MDC.get(getMdcField(REQUEST_ID)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"200, false", "404, true", "500, true"})
+    @DisplayName("Check bodies are only decoded and logged for failed requests in tail mode")
+    void checkTailCapture(int status, boolean expectedLogging) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcAndLogTail");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext, status);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        loggingFilter.bufferPool = new LoggedBufferPool(1, 1024);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        boolean loggedBeforeResponse = listAppender.findFirstMessage("Received") != null;
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        assertFalse(loggedBeforeResponse);
+        verify(requestInterceptorContext).setInputStream(any());
+        LogEvent logReceived = listAppender.findFirstMessage("Received");
+        LogEvent logProcessed = listAppender.findFirstMessage("Processed");
+        assertNotNull(logProcessed);
+        if (expectedLogging) {
+            assertTrue(logReceived.getMessage().getFormattedMessage().contains(INPUT));
+            assertTrue(logProcessed.getMessage().getFormattedMessage().contains(OUTPUT));
+            assertEquals(INPUT, getMdcLogged(REQUEST_BODY));
+            assertEquals(OUTPUT, getMdcLogged(RESPONSE_BODY));
+        } else {
+            assertNull(logReceived);
+            assertNull(getMdcLogged(REQUEST_BODY));
+            assertNull(getMdcLogged(RESPONSE_BODY));
+            verify(responseInterceptorContext, never()).setOutputStream(isA(CaptureOutputStream.class));
+            // Buffer released unread and reused
+            loggingFilter.bufferPool.acquire(-1);
+            assertEquals(1, loggingFilter.bufferPool.getHits());
+        }
+    }
+
+    @Test
+    @DisplayName("Check latency, status, bodies captured and overhead are recorded in metrics")
+    void checkMetrics() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdc");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext, 201);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        LoggedMetrics metrics = new LoggedMetrics(null, true);
+        loggingFilter.setMetrics(metrics);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        LoggedMetrics.Endpoint endpoint = metrics.getEndpoints().get(AnnotatedResource.class.getName() + ".bodyAsMdc()");
+        assertEquals(1, endpoint.getCount());
+        assertEquals(1, endpoint.getStatus2xx());
+        assertEquals(INPUT.getBytes(UTF_8).length, endpoint.getRequestBytes());
+        assertEquals(OUTPUT.getBytes(UTF_8).length, endpoint.getResponseBytes());
+        assertEquals(Map.of(
+                        Phase.REQUEST_FILTER, 1L,
+                        Phase.REQUEST_CAPTURE, 1L,
+                        Phase.RESPONSE_FILTER, 1L,
+                        Phase.RESPONSE_CAPTURE, 1L,
+                        Phase.BODY_FILTER, 2L,
+                        Phase.LOG, 1L),
+                Stream.of(Phase.values()).collect(toMap(identity(), phase -> metrics.getOverhead(phase).getCount())));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"NANOSECONDS, ns", "MICROSECONDS, us", "MILLISECONDS, ms"})
+    @DisplayName("Check durations are written with the precision defined")
+    void checkDurations(TimeUnit unit, String suffix) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLog");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        loggingFilter.setDurationUnit(unit);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        long duration = Long.parseLong(getMdcLogged(DURATION));
+        long readDuration = Long.parseLong(getMdcLogged(READ_DURATION));
+        long firstByteDuration = Long.parseLong(getMdcLogged(FIRST_BYTE_DURATION));
+        assertTrue(listAppender.findFirstMessage("Processed").getMessage().getFormattedMessage()
+                .contains(" in " + duration + suffix));
+        assertTrue(firstByteDuration >= duration);
+        assertTrue(readDuration <= duration);
+        if (unit == TimeUnit.NANOSECONDS) {
+            assertTrue(readDuration > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Check fields are kept in a single context instead of MDC")
+    void checkStructuredContext() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLog");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        loggingFilter.setContextStorage(Storage.STRUCTURED);
+
+        // When
+        loggingFilter.filter(requestContext);
+        Map<String, String> mdcDuringRequest = MDC.getCopyOfContextMap();
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        assertTrue(mdcDuringRequest == null || mdcDuringRequest.isEmpty());
+        assertNull(LoggedContext.current());
+        assertEquals(requestContext.getUriInfo().getPath(), getMdcLogged(REQUEST_URI));
+        assertEquals(PARAMETERS, getMdcLogged(REQUEST_PARAMETERS));
+        assertEquals("bodyAsLog", getMdcLogged(RESOURCE_METHOD));
+        assertEquals("200", getMdcLogged(RESPONSE_STATUS));
+        assertNotNull(getMdcLogged(DURATION));
+        assertEquals(requestContext.getUriInfo().getPath(), listAppender.findFirstMessage("Received")
+                .getContextData().getValue(REQUEST_URI.getDefaultField()));
+    }
+
+    @Test
+    @DisplayName("Check fields kept in a single context are written in the logs by the emitter")
+    void checkStructuredContextWithEmitter() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLog");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        LoggedEmitter emitter = LoggedEmitter.of(16);
+        loggingFilter.setContextStorage(Storage.STRUCTURED);
+        loggingFilter.setEmitter(emitter);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+        // Waits for the logs to be written
+        emitter.close();
+
+        // Then
+        String path = requestContext.getUriInfo().getPath();
+        String received = listAppender.findFirstMessage("Received").getMessage().getFormattedMessage();
+        String processed = listAppender.findFirstMessage("Processed").getMessage().getFormattedMessage();
+        assertTrue(received.startsWith("Received POST " + path + "\n"));
+        assertTrue(processed.startsWith("Processed POST " + path + " with status 200 in "));
+        assertFalse(processed.contains("null"));
+        assertEquals(path, getMdcLogged(REQUEST_URI));
+        assertEquals("200", getMdcLogged(RESPONSE_STATUS));
+    }
+
+    @Test
+    @DisplayName("Check structured context storage is refused without a logging backend reading it")
+    void checkStructuredContextUnsupported() {
+        // Given
+        LoggedFilter filter = new LoggedFilter() {
+            @Override
+            protected boolean isStructuredSupported() {
+                return false;
+            }
+        };
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> filter.setContextStorage(Storage.STRUCTURED));
+        filter.setContextStorage(Storage.MDC);
+        assertTrue(loggingFilter.isStructuredSupported());
+    }
+
+    @Test
+    @DisplayName("Check a single event is given to the sink instead of the logs")
+    void checkEventSink() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMix");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext, 201);
+        ReaderInterceptorContext requestInterceptorContext = getRequestInterceptorContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        List<LoggedExchange> exchanges = new ArrayList<>();
+        loggingFilter.setEventSink(exchanges::add);
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.aroundReadFrom(requestInterceptorContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        assertTrue(listAppender.getMessages().isEmpty());
+        assertEquals(1, exchanges.size());
+        LoggedExchange exchange = exchanges.getFirst();
+        assertEquals(requestContext.getMethod(), exchange.method());
+        assertEquals(requestContext.getUriInfo().getPath(), exchange.uri());
+        assertEquals(PARAMETERS, exchange.parameters());
+        assertEquals("bodyAsMix", exchange.resourceMethod());
+        assertEquals(201, exchange.status());
+        assertTrue(exchange.duration() >= exchange.readDuration());
+        assertEquals(INPUT, exchange.requestBody().toString());
+        assertEquals(OUTPUT, exchange.responseBody().toString());
+    }
+
+    @ParameterizedTest(name = "{0} limited to {1}")
+    @CsvSource({"SORTED, -1, " + PARAMETERS, "RAW, -1, " + PARAMETERS, "SORTED, 10, param1=val...", "RAW, 10, param1=val..."})
+    @DisplayName("Check request parameters are written in the format and length defined")
+    void checkParameters(ParametersFormat format, int limit, String expected) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLog");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        loggingFilter.setParametersFormat(format);
+        loggingFilter.setParametersLimit(limit);
+
+        // When
+        loggingFilter.filter(requestContext);
+
+        // Then
+        assertEquals(expected, getMdc(REQUEST_PARAMETERS));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Storage.class)
+    @DisplayName("Check request parameters are only formatted lazily with the structured storage")
+    void checkParametersDeferred(Storage storage) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsLog");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        loggingFilter.setContextStorage(storage);
+
+        // When
+        loggingFilter.filter(requestContext);
+        CharSequence parameters = loggingFilter.getParameters(requestContext.getUriInfo());
+
+        // Then
+        assertEquals(storage == Storage.STRUCTURED, parameters instanceof LoggedDeferredBody);
+        assertEquals(PARAMETERS, parameters.toString());
+    }
+
+    @ParameterizedTest(name = "{0} captured: {1}")
+    @CsvSource({"text/plain, true", "application/json, true", "application/problem+json, true", "application/atom+xml, true",
+            "APPLICATION/XML; charset=UTF-8, true", "application/octet-stream, false", "image/png, false", "text/event-stream, false"})
+    @DisplayName("Check only textual media types are captured by default")
+    void checkMediaTypes(String mediaType, boolean expectedCapture) throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdc");
+
+        // Given
+        LoggedPlan.Body configuration = loggingFilter.getPlan().response();
+
+        // When
+        boolean captured = configuration.isCaptured(MediaType.valueOf(mediaType));
+
+        // Then
+        assertEquals(expectedCapture, captured);
+    }
+
+    @Test
+    @DisplayName("Check binary bodies flow through without being captured")
+    void checkBinaryBodySkipped() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdc");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        doReturn(APPLICATION_OCTET_STREAM_TYPE).when(responseInterceptorContext).getMediaType();
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        verify(responseInterceptorContext, never()).setOutputStream(isA(CaptureOutputStream.class));
+        verify(responseInterceptorContext).proceed();
+        assertNotNull(listAppender.findFirstMessage("Processed"));
+        assertNull(getMdcLogged(RESPONSE_BODY));
+    }
+
+    @Test
+    @DisplayName("Check binary bodies are summarized with their media type, size and hash")
+    void checkBinaryBodySummary() throws Exception {
+        setupTest(AnnotatedResource.class, "bodyAsMdcWithSummary");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        ContainerResponseContextImpl responseContext = getResponseContext(requestContext);
+        WriterInterceptorContext responseInterceptorContext = getResponseInterceptorContext(requestContext);
+        doReturn(APPLICATION_OCTET_STREAM_TYPE).when(responseInterceptorContext).getMediaType();
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(OUTPUT.getBytes()));
+
+        // When
+        loggingFilter.filter(requestContext);
+        loggingFilter.filter(requestContext, responseContext);
+        loggingFilter.aroundWriteTo(responseInterceptorContext);
+
+        // Then
+        assertEquals("[application/octet-stream, " + OUTPUT.getBytes().length + " bytes, SHA-256 " + hash + "]",
+                getMdcLogged(RESPONSE_BODY));
+    }
+
+    @Test
+    @DisplayName("Check parameters are mapped manually, automatically or excluded")
+    void checkMappings() throws Exception {
+        setupTest(AnnotatedResource.class, "withMappings");
+
+        // Given
+        PreMatchContainerRequestContext requestContext = getRequestContext();
+        requestContext.getHeaders().add("User-Agent", "JUnit");
+        requestContext.getHeaders().add("Accept", "text/plain");
+        requestContext.getHeaders().add("X-Custom", "custom");
+
+        // When
+        loggingFilter.filter(requestContext);
+
+        // Then
+        assertEquals("value2", MDC.get("query-second"));
+        assertEquals("value1", MDC.get("query-param1"));
+        assertNull(MDC.get("query-param2"));
+        assertEquals("JUnit", MDC.get("agent"));
+        assertEquals("custom", MDC.get("header-X-Custom"));
+        assertNull(MDC.get("header-User-Agent"));
+        assertNull(MDC.get("header-Accept"));
+        assertEquals(2, loggingFilter.getPlan().mappings().size());
+    }
+
+    @Test
+    @DisplayName("Check discarded body is never decoded")
+    void checkDiscardedBody() {
+        // Given
+        LoggedBodyFilter filter = mock(LoggedBodyFilter.class);
+        LoggedBodyBuffer buffer = new LoggedBodyBuffer();
+        buffer.write(INPUT.getBytes(UTF_8), 0, INPUT.getBytes(UTF_8).length);
+        loggingFilter.bufferPool = new LoggedBufferPool(1, 1024);
+
+        // When
+        CharSequence body = loggingFilter.getBody(buffer, UTF_8, Set.of(filter));
+        loggingFilter.discardBody(body);
+
+        // Then
+        assertEquals("", body.toString());
+        verifyNoInteractions(filter);
+        assertSame(buffer, loggingFilter.bufferPool.acquire(-1));
+    }
+
+    @Test
+    @DisplayName("Check charset defaults to UTF-8")
+    void checkDefaultCharset() {
+        assertEquals(UTF_8, loggingFilter.getCharset(null));
+        assertEquals(UTF_8, loggingFilter.getCharset(MediaType.APPLICATION_JSON_TYPE));
+        assertEquals(UTF_8, loggingFilter.getCharset(MediaType.valueOf("text/plain; charset=unknown")));
+    }
+
     void checkRequestLogging(LogType[] expectedRequestLogging, Class<? extends LoggedBodyFilter>[] expectedBodyFilters) {
         LogEvent logReceived = listAppender.findFirstMessage("Received");
 
@@ -286,8 +939,57 @@ class LoggedFilterTest extends AbstractFilterTest {
         return new PreMatchContainerRequestContext(request);
     }
 
+    ReaderInterceptorContext getRequestInterceptorContext(PreMatchContainerRequestContext requestContext) throws Exception {
+        ReaderInterceptorContext context = mock(ReaderInterceptorContext.class);
+        AtomicReference<InputStream> input = new AtomicReference<>(requestContext.getEntityStream());
+        lenient().doAnswer(invocation -> input.get()).when(context).getInputStream();
+        lenient().doAnswer(invocation -> {
+            input.set(invocation.getArgument(0, InputStream.class));
+            return null;
+        }).when(context).setInputStream(any());
+        lenient().doAnswer(invocation -> input.get().readAllBytes()).when(context).proceed();
+
+        // Properties shared with the request context, as done by the runtime
+        lenient().doAnswer(invocation ->
+                requestContext.getProperty(invocation.getArgument(0, String.class))
+        ).when(context).getProperty(any());
+        lenient().doAnswer(invocation ->
+                requestContext.getProperty(invocation.getArgument(0, String.class))
+        ).when(containerRequestContext).getProperty(any());
+        lenient().doAnswer(invocation -> {
+            requestContext.setProperty(invocation.getArgument(0, String.class), invocation.getArgument(1, Object.class));
+            return null;
+        }).when(containerRequestContext).setProperty(any(), any());
+        return context;
+    }
+
+    WriterInterceptorContext getResponseInterceptorContext(PreMatchContainerRequestContext requestContext) throws Exception {
+        WriterInterceptorContext context = mock(WriterInterceptorContext.class);
+        AtomicReference<OutputStream> output = new AtomicReference<>(new ByteArrayOutputStream());
+        lenient().doAnswer(invocation -> output.get()).when(context).getOutputStream();
+        lenient().doAnswer(invocation -> {
+            output.set(invocation.getArgument(0, OutputStream.class));
+            return null;
+        }).when(context).setOutputStream(any());
+        lenient().doAnswer(invocation -> {
+            output.get().write(OUTPUT.getBytes());
+            return null;
+        }).when(context).proceed();
+        lenient().doAnswer(invocation ->
+                requestContext.getProperty(invocation.getArgument(0, String.class))
+        ).when(context).getProperty(any());
+        lenient().doAnswer(invocation -> {
+            requestContext.setProperty(invocation.getArgument(0, String.class), invocation.getArgument(1, Object.class));
+            return null;
+        }).when(context).setProperty(any(), any());
+        return context;
+    }
+
     ContainerResponseContextImpl getResponseContext(PreMatchContainerRequestContext request) {
-        int responseStatus = 200;
+        return getResponseContext(request, 200);
+    }
+
+    ContainerResponseContextImpl getResponseContext(PreMatchContainerRequestContext request, int responseStatus) {
         Headers<Object> headers = new Headers<>();
         headers.add(CONTENT_TYPE, TEXT_PLAIN_TYPE.toString());
         MockHttpResponse httpResponse = new MockHttpResponse();
@@ -345,6 +1047,28 @@ class LoggedFilterTest extends AbstractFilterTest {
         @Logged
         void noBodyLogging();
 
+        @LoggedBody(value = LogType.MDC, maskedPaths = "$.secret-code")
+        void bodyAsMdcWithMasking();
+
+        @LoggedBody(value = LogType.MDC, summary = true)
+        void bodyAsMdcWithSummary();
+
+        @LoggedBody(value = LogType.MDC, redactedKeys = "secret-code", redactedPatterns = "My \\w+", filters = SensitiveBodyFilter.class)
+        void bodyAsMdcWithRedaction();
+
+        @Logged(value = @LoggedBody(LogType.LOG), sampling = 0)
+        void bodyAsLogSampled();
+
+        @LoggedBody(value = {LogType.MDC, LogType.LOG}, tail = true)
+        void bodyAsMdcAndLogTail();
+
+        @LoggedMapping(type = QUERY, mdcKey = "second", mdcPrefix = "query-", paramNames = {"missing", "param2"})
+        @LoggedMapping(type = QUERY, auto = true, mdcPrefix = "query-")
+        @LoggedMapping(type = HEADER, mdcKey = "agent", paramNames = "User-Agent")
+        @LoggedMapping(type = HEADER, paramNames = "Accept")
+        @LoggedMapping(type = HEADER, auto = true, mdcPrefix = "header-")
+        void withMappings();
+
     }
 
     interface AnnotatedResourceParent {
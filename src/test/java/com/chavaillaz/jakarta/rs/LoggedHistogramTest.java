@@ -0,0 +1,65 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LoggedHistogramTest {
+
+    @Test
+    void getIndex_contiguous() {
+        for (int index = 0; index <= LoggedHistogram.getIndex(LoggedHistogram.MAX_VALUE); index++) {
+            long highest = LoggedHistogram.getHighestValue(index);
+            assertEquals(index, LoggedHistogram.getIndex(highest));
+            assertEquals(index + 1, LoggedHistogram.getIndex(highest + 1));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1, 50, 90, 99, 99.9, 100})
+    void getValueAtPercentile(double percentile) {
+        // given
+        LoggedHistogram histogram = new LoggedHistogram();
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        // when
+        long value = histogram.getValueAtPercentile(percentile);
+
+        // then
+        double expected = percentile * 1_000;
+        assertTrue(value >= expected && value <= expected * (1 + 1.0 / 16), "Value " + value);
+    }
+
+    @Test
+    void record_statistics() {
+        // given
+        LoggedHistogram histogram = new LoggedHistogram();
+
+        // when
+        histogram.record(5);
+        histogram.record(15);
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+
+        // then
+        assertEquals(4, histogram.getCount());
+        assertEquals(LoggedHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals((20.0 + LoggedHistogram.MAX_VALUE) / 4, histogram.getMean());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(15, histogram.getValueAtPercentile(75));
+        assertEquals(LoggedHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void getValueAtPercentile_empty() {
+        LoggedHistogram histogram = new LoggedHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean());
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.chavaillaz.jakarta.rs.LoggedMetrics.Phase;
+import org.junit.jupiter.api.Test;
+
+class LoggedMetricsTest {
+
+    @Test
+    void recordRequest() throws Exception {
+        // given
+        LoggedMetrics metrics = new LoggedMetrics();
+        Method method = Resource.class.getMethod("method");
+        LoggedMetrics.Endpoint endpoint = metrics.getEndpoint(Resource.class, method);
+
+        // when
+        endpoint.recordRequest(200, 100);
+        endpoint.recordRequest(204, 200);
+        endpoint.recordRequest(404, 300);
+        endpoint.recordRequest(503, 400);
+        endpoint.recordRequestBytes(10);
+        endpoint.recordResponseBytes(20);
+        endpoint.recordResponseBytes(30);
+
+        // then
+        assertSame(endpoint, metrics.getEndpoint(Resource.class, method));
+        assertEquals(4, endpoint.getCount());
+        assertEquals(0, endpoint.getStatus1xx());
+        assertEquals(2, endpoint.getStatus2xx());
+        assertEquals(0, endpoint.getStatus3xx());
+        assertEquals(1, endpoint.getStatus4xx());
+        assertEquals(1, endpoint.getStatus5xx());
+        assertEquals(250, endpoint.getLatencyMean());
+        assertEquals(400, endpoint.getLatencyMax());
+        assertEquals(10, endpoint.getRequestBytes());
+        assertEquals(50, endpoint.getResponseBytes());
+    }
+
+    @Test
+    void getEndpoints() throws Exception {
+        // given
+        LoggedMetrics metrics = new LoggedMetrics();
+
+        // when
+        metrics.getEndpoint(Resource.class, Resource.class.getMethod("other"));
+        metrics.getEndpoint(Resource.class, Resource.class.getMethod("method"));
+
+        // then
+        assertEquals(List.of(Resource.class.getName() + ".method()", Resource.class.getName() + ".other()"),
+                List.copyOf(metrics.getEndpoints().keySet()));
+    }
+
+    @Test
+    void getEndpoint_overloadedMethods() throws Exception {
+        // given
+        LoggedMetrics metrics = new LoggedMetrics();
+
+        // when
+        LoggedMetrics.Endpoint endpoint = metrics.getEndpoint(Resource.class, Resource.class.getMethod("method"));
+        LoggedMetrics.Endpoint overloaded = metrics.getEndpoint(Resource.class, Resource.class.getMethod("method", String.class, int.class));
+
+        // then
+        assertNotSame(endpoint, overloaded);
+        assertEquals(Resource.class.getName() + ".method(java.lang.String,int)", overloaded.getName());
+    }
+
+    @Test
+    void getEndpoint_sameSimpleName() throws Exception {
+        // given
+        LoggedMetrics metrics = new LoggedMetrics();
+
+        // when
+        LoggedMetrics.Endpoint endpoint = metrics.getEndpoint(Resource.class, Resource.class.getMethod("method"));
+        LoggedMetrics.Endpoint other = metrics.getEndpoint(Other.Resource.class, Other.Resource.class.getMethod("method"));
+
+        // then
+        assertNotSame(endpoint, other);
+        assertEquals(2, metrics.getEndpoints().size());
+    }
+
+    @Test
+    void recordOverhead() {
+        // given
+        LoggedMetrics disabled = new LoggedMetrics();
+        LoggedMetrics enabled = new LoggedMetrics(null, true);
+
+        // when
+        disabled.recordOverhead(Phase.LOG, 100);
+        enabled.recordOverhead(Phase.LOG, 100);
+        enabled.recordOverhead(Phase.LOG, 300);
+
+        // then
+        assertFalse(disabled.isOverheadRecorded());
+        assertNull(disabled.getOverhead(Phase.LOG));
+        assertTrue(enabled.isOverheadRecorded());
+        assertEquals(2, enabled.getOverhead(Phase.LOG).getCount());
+        assertEquals(400, enabled.getOverhead(Phase.LOG).getTotalTime());
+        assertEquals(200, enabled.getOverhead(Phase.LOG).getMeanTime());
+        assertEquals(0, enabled.getOverhead(Phase.BODY_FILTER).getCount());
+    }
+
+    @Test
+    void registerOverheadMBean() throws Exception {
+        // given
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LoggedMetrics.DOMAIN + ":type=LoggedOverhead,phase=BODY_FILTER");
+
+        // when
+        try (LoggedMetrics metrics = new LoggedMetrics(server, true)) {
+            metrics.recordOverhead(Phase.BODY_FILTER, 1_000);
+
+            // then
+            assertEquals(1L, server.getAttribute(name, "Count"));
+            assertEquals(1_000L, server.getAttribute(name, "TotalTime"));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    void registerMBean() throws Exception {
+        // given
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LoggedMetrics.DOMAIN + ":type=LoggedEndpoint"
+                + ",class=\"" + Resource.class.getName() + "\",method=\"method(java.lang.String,int)\"");
+
+        // when
+        try (LoggedMetrics metrics = new LoggedMetrics(server)) {
+            metrics.getEndpoint(Resource.class, Resource.class.getMethod("method", String.class, int.class))
+                    .recordRequest(200, 1_000);
+
+            // then
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "Count"));
+            assertEquals(1L, server.getAttribute(name, "Status2xx"));
+            assertEquals(1_000L, server.getAttribute(name, "LatencyP99"));
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    public static class Resource {
+
+        public void method() {
+            // Resource method without parameter
+        }
+
+        public void method(String name, int count) {
+            // Resource method overloaded
+        }
+
+        public void other() {
+            // Other resource method
+        }
+
+    }
+
+    public static class Other {
+
+        public static class Resource {
+
+            public void method() {
+                // Resource method of a class with the same simple name
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LoggedSamplerTest {
+
+    static long countSampled(LoggedSampler sampler, int requests) {
+        return IntStream.range(0, requests)
+                .filter(i -> sampler.sample())
+                .count();
+    }
+
+    @Test
+    void sample_always() {
+        assertFalse(LoggedSampler.ALWAYS.isActive());
+        assertEquals(1000, countSampled(LoggedSampler.ALWAYS, 1000));
+    }
+
+    @Test
+    void sample_ratio() {
+        // given
+        LoggedSampler sampler = new LoggedSampler(0.25, -1, -1, 500);
+
+        // when
+        long sampled = countSampled(sampler, 100_000);
+
+        // then
+        assertTrue(sampler.isActive());
+        assertTrue(sampled > 23_000 && sampled < 27_000, "Sampled " + sampled);
+    }
+
+    @Test
+    void sample_none() {
+        assertEquals(0, countSampled(new LoggedSampler(0, -1, -1, 500), 1000));
+        assertEquals(0, countSampled(new LoggedSampler(1, 0, -1, 500), 1000));
+    }
+
+    @Test
+    void sample_rateLimit() throws InterruptedException {
+        // given
+        LoggedSampler sampler = new LoggedSampler(1, 100, -1, 500);
+
+        // when
+        long burst = countSampled(sampler, 1000);
+        Thread.sleep(50);
+        long refilled = countSampled(sampler, 1000);
+
+        // then
+        assertEquals(100, burst);
+        assertTrue(refilled >= 4 && refilled <= 10, "Refilled " + refilled);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "200, 10, false",
+            "404, 10, false",
+            "500, 10, true",
+            "503, 10, true",
+            "200, 300, true"
+    })
+    void isForced(int status, long duration, boolean expected) {
+        assertEquals(expected, new LoggedSampler(0, -1, 300, 500).isForced(status, duration));
+    }
+
+    @Test
+    void isForced_disabled() {
+        assertFalse(new LoggedSampler(0, -1, -1, -1).isForced(500, 10_000));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-0.1, 1.1, Double.NaN})
+    void create_invalidRatio(double ratio) {
+        assertThrows(IllegalArgumentException.class, () -> new LoggedSampler(ratio, -1, -1, 500));
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.chavaillaz.jakarta.rs;
+
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.HEADER;
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.PATH;
+import static com.chavaillaz.jakarta.rs.LoggedMapping.LogMappingType.QUERY;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.ws.rs.container.ResourceInfo;
+import org.junit.jupiter.api.Test;
+
+class LoggedUtilsTest {
+
+    @Test
+    void getMergedMappings_methodBeforeInterfaceBeforeClass() throws Exception {
+        // given
+        ResourceInfo resourceInfo = getResourceInfo(MappedResource.class.getMethod("get", String.class));
+
+        // when
+        Set<LoggedMapping> mappings = LoggedUtils.getMergedMappings(resourceInfo);
+
+        // then
+        assertEquals(Set.of("method", "query-", "interface-type", "class-header", "class-path"), getKeys(mappings));
+    }
+
+    @Test
+    void getMergedMappings_overloadedMethod() throws Exception {
+        // given
+        ResourceInfo resourceInfo = getResourceInfo(MappedResource.class.getMethod("get", String.class, int.class));
+
+        // when
+        Set<LoggedMapping> mappings = LoggedUtils.getMergedMappings(resourceInfo);
+
+        // then
+        assertEquals(Set.of("overload", "interface-type", "class-header", "class-path"), getKeys(mappings));
+    }
+
+    @Test
+    void getMergedMappings_singleMappings() throws Exception {
+        // given
+        ResourceInfo resourceInfo = getResourceInfo(SingleMappedResource.class, SingleMappedResource.class.getMethod("get", String.class));
+
+        // when
+        Set<LoggedMapping> mappings = LoggedUtils.getMergedMappings(resourceInfo);
+
+        // then
+        assertEquals(Set.of("single-method", "interface-type"), getKeys(mappings));
+    }
+
+    @Test
+    void mergeMappings_conflictingParameters() throws Exception {
+        // given
+        Method method = MappedResource.class.getMethod("get", String.class);
+        LoggedMapping[] methodMappings = method.getAnnotationsByType(LoggedMapping.class);
+        LoggedMapping[] classMappings = MappedResource.class.getAnnotationsByType(LoggedMapping.class);
+        Set<LoggedMapping> mergedMappings = new HashSet<>();
+
+        // when
+        LoggedUtils.mergeMappings(mergedMappings, methodMappings);
+        LoggedUtils.mergeMappings(mergedMappings, classMappings);
+
+        // then
+        assertEquals(Set.of("method", "query-", "class-header", "class-path"), getKeys(mergedMappings));
+    }
+
+    @Test
+    void getAnnotationsInterfaces_matchingSignature() throws Exception {
+        // given
+        Method method = MappedResource.class.getMethod("get", String.class);
+        Method overload = MappedResource.class.getMethod("get", String.class, int.class);
+
+        // when
+        Set<Annotation> annotations = LoggedUtils.getAnnotationsInterfaces(MappedResource.class, method);
+        Set<Annotation> overloadAnnotations = LoggedUtils.getAnnotationsInterfaces(MappedResource.class, overload);
+
+        // then
+        assertEquals(3, annotations.size());
+        assertEquals(2, annotations.stream().filter(LoggedMappings.class::isInstance).count());
+        assertEquals(2, overloadAnnotations.size());
+        assertTrue(overloadAnnotations.stream().allMatch(LoggedMapping.class::isInstance));
+        assertFalse(annotations.containsAll(overloadAnnotations));
+    }
+
+    Set<String> getKeys(Set<LoggedMapping> mappings) {
+        return mappings.stream()
+                .map(mapping -> mapping.mdcPrefix() + mapping.mdcKey())
+                .collect(toSet());
+    }
+
+    ResourceInfo getResourceInfo(Method method) {
+        return getResourceInfo(MappedResource.class, method);
+    }
+
+    ResourceInfo getResourceInfo(Class<?> type, Method method) {
+        return new ResourceInfo() {
+
+            @Override
+            public Method getResourceMethod() {
+                return method;
+            }
+
+            @Override
+            public Class<?> getResourceClass() {
+                return type;
+            }
+
+        };
+    }
+
+    @LoggedMapping(type = PATH, mdcKey = "interface-type", paramNames = "id")
+    interface MappedApi {
+
+        @LoggedMapping(type = QUERY, mdcKey = "interface", paramNames = {"other", "id"})
+        @LoggedMapping(type = HEADER, mdcKey = "interface-header", paramNames = "X-Resource")
+        void get(String id);
+
+        @LoggedMapping(type = QUERY, mdcKey = "overload", paramNames = "page")
+        void get(String id, int page);
+
+    }
+
+    @LoggedMapping(type = QUERY, mdcKey = "class", paramNames = {"id", "page"})
+    @LoggedMapping(type = HEADER, mdcKey = "class-header", paramNames = "X-Resource")
+    @LoggedMapping(type = PATH, mdcKey = "class-path", paramNames = "version")
+    static class MappedResource implements MappedApi {
+
+        @Override
+        @LoggedMapping(type = QUERY, mdcKey = "method", paramNames = "id")
+        @LoggedMapping(type = QUERY, auto = true, mdcPrefix = "query-")
+        public void get(String id) {
+            // Resource method
+        }
+
+        @Override
+        public void get(String id, int page) {
+            // Resource method
+        }
+
+    }
+
+    @LoggedMapping(type = HEADER, mdcKey = "single-class", paramNames = "X-Resource")
+    static class SingleMappedResource implements MappedApi {
+
+        @Override
+        @LoggedMapping(type = QUERY, mdcKey = "single-method", paramNames = "page")
+        public void get(String id) {
+            // Resource method
+        }
+
+        @Override
+        public void get(String id, int page) {
+            // Resource method
+        }
+
+    }
+
+}
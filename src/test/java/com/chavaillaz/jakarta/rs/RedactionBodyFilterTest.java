@@ -0,0 +1,84 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class RedactionBodyFilterTest {
+
+    static String redact(String content, List<String> keys, List<String> patterns) {
+        StringBuilder body = new StringBuilder(content);
+        new RedactionBodyFilter(keys, patterns).filter(body);
+        return body.toString();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '`', value = {
+            "{ \"password\": \"secret\", \"login\": \"doe\" }|{ \"password\": \"***\", \"login\": \"doe\" }",
+            "{\"Password\":\"se\\\"cret\"}|{\"Password\":\"***\"}",
+            "{ \"pin\": 1234, \"age\": 42 }|{ \"pin\": ***, \"age\": 42 }",
+            "login=doe&password=secret&remember=true|login=doe&password=***&remember=true",
+            "<password>secret</password>|<password>secret</password>",
+            "{ \"password-hint\": \"pet\", \"mypassword\": \"x\" }|{ \"password-hint\": \"pet\", \"mypassword\": \"x\" }",
+            "{ \"password\": { \"pin\": 1 } }|{ \"password\": { \"pin\": *** } }"
+    })
+    void filter_keys(String content, String expected) {
+        assertEquals(expected, redact(content, List.of("password", "pin", "iban"), List.of()));
+    }
+
+    @Test
+    void filter_lines() {
+        // when
+        String redacted = redact("password = secret\nlogin = doe", List.of("password"), List.of());
+
+        // then
+        assertEquals("password = ***\nlogin = doe", redacted);
+    }
+
+    @Test
+    void filter_overlappingKeys() {
+        // when
+        String redacted = redact("{ \"token\": \"a\", \"access-token\": \"b\", \"en\": \"c\" }",
+                List.of("token", "access-token", "en"), List.of());
+
+        // then
+        assertEquals("{ \"token\": \"***\", \"access-token\": \"***\", \"en\": \"***\" }", redacted);
+    }
+
+    @Test
+    void filter_patterns() {
+        // when
+        String redacted = redact("Card 1111-2222-3333-4444 of john.doe@company.com",
+                List.of(), List.of("\\d{4}(-\\d{4}){3}", "[\\w.]+@[\\w.]+"));
+
+        // then
+        assertEquals("Card *** of ***", redacted);
+    }
+
+    @Test
+    void filter_keysAndPatterns() {
+        // when
+        String redacted = redact("{ \"iban\": \"CH00 1234\", \"note\": \"call 1234-5678\", \"Pin\": \"1234-5678\" }",
+                List.of("iban", "pin"), List.of("\\d{4}-\\d{4}", "CH\\d{2}"));
+
+        // then
+        assertEquals("{ \"iban\": \"***\", \"note\": \"call ***\", \"Pin\": \"***\" }", redacted);
+    }
+
+    @Test
+    void filter_nothingFound() {
+        // given
+        String content = "{ \"content\": \"My Article\" }";
+
+        // when
+        String redacted = redact(content, List.of("password", "pässwort"), List.of("\\d{4}"));
+
+        // then
+        assertEquals(content, redacted);
+    }
+
+}
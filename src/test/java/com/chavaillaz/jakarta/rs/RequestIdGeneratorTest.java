@@ -0,0 +1,81 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.chavaillaz.jakarta.rs.RequestIdGenerator.Standard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class RequestIdGeneratorTest {
+
+    @ParameterizedTest
+    @EnumSource(Standard.class)
+    void generate_unique(Standard generator) {
+        // given
+        Set<String> identifiers = new HashSet<>();
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            identifiers.add(generator.generate());
+        }
+
+        // then
+        assertEquals(10_000, identifiers.size());
+    }
+
+    @Test
+    void generate_randomUuid() {
+        // when
+        UUID uuid = UUID.fromString(Standard.RANDOM_UUID.generate());
+
+        // then
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    void generate_timeUuid() throws InterruptedException {
+        // when
+        long before = System.currentTimeMillis();
+        UUID first = UUID.fromString(Standard.TIME_UUID.generate());
+        Thread.sleep(2);
+        UUID second = UUID.fromString(Standard.TIME_UUID.generate());
+
+        // then
+        assertEquals(7, first.version());
+        assertEquals(2, first.variant());
+        assertTrue((first.getMostSignificantBits() >>> 16) >= before);
+        assertTrue(first.toString().compareTo(second.toString()) < 0);
+    }
+
+    @Test
+    void generate_ulid() throws InterruptedException {
+        // when
+        long before = System.currentTimeMillis();
+        String first = Standard.ULID.generate();
+        Thread.sleep(2);
+        String second = Standard.ULID.generate();
+
+        // then
+        assertEquals(26, first.length());
+        assertTrue(first.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+        assertTrue(decodeTime(first) >= before);
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    long decodeTime(String ulid) {
+        String alphabet = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+        long time = 0;
+        for (char character : ulid.substring(0, 10).toCharArray()) {
+            time = (time << 5) | alphabet.indexOf(character);
+        }
+        return time;
+    }
+
+}
@@ -8,13 +8,17 @@ import java.util.regex.Pattern;
  */
 public class SensitiveBodyFilter implements LoggedBodyFilter {
 
+    protected static final String MASK = "masked";
     protected static final Pattern SECRET = Pattern.compile("\"secret-code\": \"([a-zA-Z0-9-]*)\"");
 
     @Override
     public void filter(StringBuilder body) {
         Matcher matcher = SECRET.matcher(body);
-        while (matcher.find()) {
-            body.replace(matcher.start(1), matcher.end(1), "masked");
+        int position = 0;
+        // Search again from the last replacement as the body length changes
+        while (matcher.find(position)) {
+            body.replace(matcher.start(1), matcher.end(1), MASK);
+            position = matcher.start(1) + MASK.length();
         }
     }
 
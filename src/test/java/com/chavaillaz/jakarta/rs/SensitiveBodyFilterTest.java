@@ -0,0 +1,33 @@
+package com.chavaillaz.jakarta.rs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SensitiveBodyFilterTest {
+
+    @Test
+    void filter_adjacentSecrets() {
+        // given
+        var body = new StringBuilder("{\"secret-code\": \"1234-ABCD\",\"secret-code\": \"5678-EFGH\"}");
+
+        // when
+        new SensitiveBodyFilter().filter(body);
+
+        // then
+        assertEquals("{\"secret-code\": \"masked\",\"secret-code\": \"masked\"}", body.toString());
+    }
+
+    @Test
+    void filter_shortSecrets() {
+        // given
+        var body = new StringBuilder("[{\"secret-code\": \"1\"}, {\"secret-code\": \"2\"}]");
+
+        // when
+        new SensitiveBodyFilter().filter(body);
+
+        // then
+        assertEquals("[{\"secret-code\": \"masked\"}, {\"secret-code\": \"masked\"}]", body.toString());
+    }
+
+}
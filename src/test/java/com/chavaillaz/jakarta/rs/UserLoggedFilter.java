@@ -6,7 +6,6 @@ import static com.chavaillaz.jakarta.rs.LoggedUtils.getAnnotation;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.ext.Provider;
-import org.slf4j.MDC;
 
 @Provider
 @UserLogged
@@ -34,11 +33,9 @@ public class UserLoggedFilter extends LoggedFilter {
     }
 
     @Override
-    public void filter(ContainerRequestContext requestContext) {
-        super.filter(requestContext);
-
+    protected void putCustomFields(ContainerRequestContext requestContext) {
         // Add the user currently logged in, possibly by querying injected entity
-        MDC.put(USER_ID, "Doe");
+        putContext(USER_ID, "Doe");
 
         // Log specific field if activated in the new annotation
         logUserAgent(requestContext);
@@ -51,7 +48,7 @@ public class UserLoggedFilter extends LoggedFilter {
                 .map(UserLogged::userAgent)
                 .filter(loggingActivated -> loggingActivated)
                 .map(logging -> requestContext.getHeaderString("User-Agent"))
-                .ifPresent(origin -> MDC.put(USER_AGENT, origin));
+                .ifPresent(origin -> putContext(USER_AGENT, origin));
     }
 
 }